@@ -0,0 +1,70 @@
+package com.example.docmgmt.batch;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits a line-oriented file into roughly equal byte ranges, one per partition. Every boundary is
+ * moved forward to the start of the next line, so each line falls into exactly one range. Records
+ * must therefore not span lines.
+ */
+public class ByteRangePartitioner implements Partitioner {
+
+    public static final String INPUT_FILE = "input.file";
+    public static final String START_OFFSET = "startOffset";
+    public static final String END_OFFSET = "endOffset";
+
+    private static final int SCAN_BUFFER_SIZE = 8192;
+
+    private final Path file;
+
+    public ByteRangePartitioner(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        try (RandomAccessFile input = new RandomAccessFile(file.toFile(), "r")) {
+            long size = input.length();
+            long target = Math.max(1, size / Math.max(1, gridSize));
+            long start = 0;
+            for (int i = 0; start < size; i++) {
+                long end = i == gridSize - 1 ? size : nextLineStart(input, start + target, size);
+                ExecutionContext context = new ExecutionContext();
+                context.putString(INPUT_FILE, file.toString());
+                context.putLong(START_OFFSET, start);
+                context.putLong(END_OFFSET, end);
+                partitions.put("partition" + i, context);
+                start = end;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not partition " + file, e);
+        }
+        return partitions;
+    }
+
+    // Offset just past the first line break at or after position, or the file size if there is none
+    private static long nextLineStart(RandomAccessFile input, long position, long size) throws IOException {
+        byte[] buffer = new byte[SCAN_BUFFER_SIZE];
+        long offset = position;
+        input.seek(offset);
+        int read;
+        while (offset < size && (read = input.read(buffer)) > 0) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.docmgmt.batch;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The bytes {@code [start, end)} of a file as a resource, so a standard flat file reader can work
+ * on one partition. Opening it again starts over at {@code start}, which is what the reader relies
+ * on when it is restarted.
+ */
+public class ByteRangeResource extends AbstractResource {
+
+    private final Path file;
+    private final long start;
+    private final long end;
+
+    public ByteRangeResource(Path file, long start, long end) {
+        this.file = file;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public boolean exists() {
+        return Files.isReadable(file);
+    }
+
+    @Override
+    public String getDescription() {
+        return "bytes " + start + "-" + end + " of " + file;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        SeekableByteChannel channel = Files.newByteChannel(file).position(start);
+        return new BufferedInputStream(new RangeInputStream(Channels.newInputStream(channel), end - start));
+    }
+
+    private static final class RangeInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        RangeInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+    }
+}
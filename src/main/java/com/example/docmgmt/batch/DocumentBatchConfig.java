@@ -1,66 +1,139 @@
 package com.example.docmgmt.batch;
 
 import com.example.docmgmt.model.Document;
+import com.example.docmgmt.service.DocumentContentService;
+import com.example.docmgmt.service.SearchOutboxService;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
-import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.JpaItemWriter;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.support.CompositeItemWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import jakarta.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 
+/**
+ * {@code importDocumentJob} imports the CSV file given as the {@code input.file} job parameter
+ * (columns {@code id,title,content,author,type}, no header). The file is split into byte ranges
+ * that are read, processed and written in parallel, one partition per worker thread. Each partition
+ * keeps its read position in its step execution, so a failed run started again with the same
+ * parameters continues where every partition stopped.
+ */
 @Configuration
-@EnableBatchProcessing
 public class DocumentBatchConfig {
 
-    private static final Logger log = LoggerFactory.getLogger(DocumentBatchConfig.class);
+    public static final String JOB_NAME = "importDocumentJob";
+    public static final String WORKER_STEP_NAME = "documentStep";
+    public static final String MANAGER_STEP_NAME = "documentStep.manager";
 
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired
+    private DocumentContentService documentContentService;
+
+    @Autowired
+    private SearchOutboxService searchOutboxService;
+
     @Bean
-    public FlatFileItemReader<Document> reader() {
+    @StepScope
+    public FlatFileItemReader<Document> reader(@Value("#{stepExecutionContext['input.file']}") String inputFile,
+                                               @Value("#{stepExecutionContext['startOffset']}") Long startOffset,
+                                               @Value("#{stepExecutionContext['endOffset']}") Long endOffset) {
         return new FlatFileItemReaderBuilder<Document>()
                 .name("documentReader")
-                .resource(new ClassPathResource("documents.csv"))
+                .resource(new ByteRangeResource(Path.of(inputFile), startOffset, endOffset))
+                .encoding(StandardCharsets.UTF_8.name())
                 .delimited()
                 .names("id", "title", "content", "author", "type")
                 .targetType(Document.class)
                 .build();
     }
 
+    @Bean
+    @StepScope
+    public ByteRangePartitioner partitioner(@Value("#{jobParameters['input.file']}") String inputFile) {
+        return new ByteRangePartitioner(Path.of(inputFile));
+    }
+
     @Bean
     public DocumentItemProcessor processor() {
         return new DocumentItemProcessor();
     }
 
     @Bean
-    public JpaItemWriter<Document> writer(EntityManagerFactory emf) {
+    public JpaItemWriter<Document> jpaWriter(EntityManagerFactory emf) {
         JpaItemWriter<Document> writer = new JpaItemWriter<>();
         writer.setEntityManagerFactory(emf);
+        // Rows are always new, persist skips the SELECT that merge issues per row
+        writer.setUsePersist(true);
         return writer;
     }
 
     @Bean
-    public Step step(JobRepository jobRepository, PlatformTransactionManager transactionManager,
-                     FlatFileItemReader<Document> reader, DocumentItemProcessor processor,
-                     JpaItemWriter<Document> writer) {
-        return new StepBuilder("documentStep", jobRepository)
-                .<Document, Document>chunk(100, transactionManager)
+    public RedisCachingItemWriter redisCachingWriter(@Value("${docmgmt.batch.import.cache-ttl:PT0S}") Duration cacheTtl) {
+        return new RedisCachingItemWriter(redisTemplate, cacheTtl);
+    }
+
+    // Texts of the whole chunk are looked up and stored together, before the rows that reference them
+    @Bean
+    public ItemWriter<Document> contentWriter() {
+        return chunk -> documentContentService.attachAll(chunk.getItems());
+    }
+
+    // Outbox events are written in the chunk transaction, so every committed row is indexed by the relay
+    @Bean
+    public ItemWriter<Document> outboxWriter() {
+        return chunk -> searchOutboxService.enqueue(chunk.getItems());
+    }
+
+    // Rows are cached only once the database write of their chunk went through
+    @Bean
+    public CompositeItemWriter<Document> writer(@Qualifier("contentWriter") ItemWriter<Document> contentWriter,
+                                                JpaItemWriter<Document> jpaWriter,
+                                                @Qualifier("outboxWriter") ItemWriter<Document> outboxWriter,
+                                                RedisCachingItemWriter redisCachingWriter) {
+        return new CompositeItemWriter<>(List.of(contentWriter, jpaWriter, outboxWriter, redisCachingWriter));
+    }
+
+    @Bean(name = "batchImportExecutor")
+    public ThreadPoolTaskExecutor batchImportExecutor(@Value("${docmgmt.batch.import.threads:4}") int threads) {
+        // Partitions of a second import wait in the queue instead of oversubscribing the database
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("batch-import-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+
+    @Bean
+    public Step documentStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                             FlatFileItemReader<Document> reader, DocumentItemProcessor processor,
+                             CompositeItemWriter<Document> writer,
+                             @Value("${docmgmt.batch.import.chunk-size:500}") int chunkSize) {
+        return new StepBuilder(WORKER_STEP_NAME, jobRepository)
+                .<Document, Document>chunk(chunkSize, transactionManager)
                 .reader(reader)
                 .processor(processor)
                 .writer(writer)
@@ -68,9 +141,22 @@ public class DocumentBatchConfig {
     }
 
     @Bean
-    public Job importDocumentJob(JobRepository jobRepository, Step step) {
-        return new JobBuilder("importDocumentJob", jobRepository)
-                .start(step)
+    public Step partitionedDocumentStep(JobRepository jobRepository, @Qualifier("documentStep") Step documentStep,
+                                        ByteRangePartitioner partitioner,
+                                        @Qualifier("batchImportExecutor") TaskExecutor batchImportExecutor,
+                                        @Value("${docmgmt.batch.import.threads:4}") int threads) {
+        return new StepBuilder(MANAGER_STEP_NAME, jobRepository)
+                .partitioner(WORKER_STEP_NAME, partitioner)
+                .step(documentStep)
+                .gridSize(threads)
+                .taskExecutor(batchImportExecutor)
+                .build();
+    }
+
+    @Bean
+    public Job importDocumentJob(JobRepository jobRepository, @Qualifier("partitionedDocumentStep") Step partitionedDocumentStep) {
+        return new JobBuilder(JOB_NAME, jobRepository)
+                .start(partitionedDocumentStep)
                 .build();
     }
 
@@ -78,15 +164,11 @@ public class DocumentBatchConfig {
 
         @Override
         public Document process(Document document) {
-            try {
-                // Cache document in Redis with key "doc:<id>"
-                redisTemplate.opsForValue().set("doc:" + document.getId(), document);
-                log.debug("Cached document in Redis: doc:{}", document.getId());
-            } catch (RedisConnectionFailureException e) {
-                log.warn("Redis unavailable, skipping cache for document {}: {}", document.getId(), e.getMessage());
-                // Continue processing without caching
-            }
+            // The id column of the file is not a database key, the row gets its id from the sequence
+            document.setId(null);
+            // Identical rows share one stored text, contentWriter stores it per chunk
+            documentContentService.assignContentHash(document);
             return document; // Pass document to writer unchanged
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.example.docmgmt.batch;
+
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.repository.DocumentRepository;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reads the documents with ids in {@code [minId, maxId]} in id order, one keyset page at a time.
+ * The id of the last document handed out is saved with every chunk, so a restarted step continues
+ * right after it instead of reading the range again.
+ */
+public class DocumentIdRangeReader implements ItemStreamReader<Document> {
+
+    static final String LAST_ID = "documentIdRangeReader.lastId";
+
+    private final DocumentRepository documentRepository;
+    private final long minId;
+    private final long maxId;
+    private final int pageSize;
+
+    private long lastId;
+    private Iterator<Document> page = List.<Document>of().iterator();
+    private boolean exhausted;
+
+    public DocumentIdRangeReader(DocumentRepository documentRepository, long minId, long maxId, int pageSize) {
+        this.documentRepository = documentRepository;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        lastId = executionContext.containsKey(LAST_ID) ? executionContext.getLong(LAST_ID) : minId - 1;
+        page = List.<Document>of().iterator();
+        exhausted = false;
+    }
+
+    @Override
+    public Document read() {
+        if (!page.hasNext()) {
+            if (exhausted) {
+                return null;
+            }
+            List<Document> next = documentRepository.findPageAfter(lastId, maxId, PageRequest.of(0, pageSize));
+            exhausted = next.size() < pageSize;
+            page = next.iterator();
+            if (!page.hasNext()) {
+                return null;
+            }
+        }
+        Document document = page.next();
+        lastId = document.getId();
+        return document;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        executionContext.putLong(LAST_ID, lastId);
+    }
+}
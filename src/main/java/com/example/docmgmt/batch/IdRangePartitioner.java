@@ -0,0 +1,47 @@
+package com.example.docmgmt.batch;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits the id range {@code [minId, maxId]} into contiguous, non-overlapping ranges of roughly
+ * equal width, one per partition.
+ */
+public class IdRangePartitioner implements Partitioner {
+
+    public static final String MIN_ID = "minId";
+    public static final String MAX_ID = "maxId";
+
+    private final long minId;
+    private final long maxId;
+
+    public IdRangePartitioner(long minId, long maxId) {
+        this.minId = minId;
+        this.maxId = maxId;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        if (maxId < minId) {
+            return partitions;
+        }
+        long width = Math.max(1, (maxId - minId) / Math.max(1, gridSize) + 1);
+        long start = minId;
+        for (int i = 0; start <= maxId; i++) {
+            long end = Math.min(maxId, start + width - 1);
+            ExecutionContext context = new ExecutionContext();
+            context.putLong(MIN_ID, start);
+            context.putLong(MAX_ID, end);
+            partitions.put("partition" + i, context);
+            if (end == maxId) {
+                break;
+            }
+            start = end + 1;
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.docmgmt.batch;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+/**
+ * Read, write and skip counts of a partitioned step, summed over its worker step executions. The
+ * manager step only receives the totals once every partition has finished, the workers commit
+ * theirs with each chunk, so this reports progress while the job runs.
+ */
+public record PartitionTotals(long readCount, long writeCount, long skipCount) {
+
+    public static PartitionTotals of(JobExecution execution, String workerStepName) {
+        // Worker executions are named "<workerStepName>:<partitionName>"
+        String prefix = workerStepName + ":";
+        long read = 0;
+        long write = 0;
+        long skip = 0;
+        for (StepExecution step : execution.getStepExecutions()) {
+            if (step.getStepName().startsWith(prefix)) {
+                read += step.getReadCount();
+                write += step.getWriteCount();
+                skip += step.getSkipCount();
+            }
+        }
+        return new PartitionTotals(read, write, skip);
+    }
+}
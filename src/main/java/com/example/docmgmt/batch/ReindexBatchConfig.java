@@ -0,0 +1,181 @@
+package com.example.docmgmt.batch;
+
+import com.example.docmgmt.cache.SearchCacheVersion;
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.repository.DocumentRepository;
+import com.example.docmgmt.service.SearchIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * {@code reindexDocumentsJob} rebuilds the search index from the documents table without taking
+ * search offline:
+ * <ol>
+ *     <li>create a new versioned index and note the id range to copy,</li>
+ *     <li>stream the range out of the database in id partitions, bulk indexing them in parallel,</li>
+ *     <li>make the index searchable, move the alias to it, then index rows stored since the job started.</li>
+ * </ol>
+ * Progress is kept per partition, so a failed run started again continues where it stopped and
+ * reuses the index it created.
+ */
+@Configuration
+public class ReindexBatchConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ReindexBatchConfig.class);
+
+    public static final String JOB_NAME = "reindexDocumentsJob";
+    public static final String WORKER_STEP_NAME = "reindexStep";
+    public static final String MANAGER_STEP_NAME = "reindexStep.manager";
+
+    // Job execution context keys written by the prepare step
+    public static final String TARGET_INDEX = "reindex.index";
+    public static final String MIN_ID = "reindex.minId";
+    public static final String MAX_ID = "reindex.maxId";
+    public static final String STARTED_AT = "reindex.startedAt";
+
+    @Bean
+    @StepScope
+    public DocumentIdRangeReader reindexReader(DocumentRepository documentRepository,
+                                               @Value("#{stepExecutionContext['minId']}") Long minId,
+                                               @Value("#{stepExecutionContext['maxId']}") Long maxId,
+                                               @Value("${docmgmt.reindex.bulk-size:1000}") int bulkSize) {
+        return new DocumentIdRangeReader(documentRepository, minId, maxId, bulkSize);
+    }
+
+    @Bean
+    @StepScope
+    public ElasticBulkItemWriter reindexWriter(ElasticsearchOperations elasticsearchOperations,
+                                               @Value("#{jobExecutionContext['reindex.index']}") String targetIndex,
+                                               ThroughputLimiter reindexLimiter) {
+        return new ElasticBulkItemWriter(elasticsearchOperations, targetIndex, reindexLimiter);
+    }
+
+    @Bean
+    @StepScope
+    public IdRangePartitioner reindexPartitioner(@Value("#{jobExecutionContext['reindex.minId']}") Long minId,
+                                                 @Value("#{jobExecutionContext['reindex.maxId']}") Long maxId) {
+        return new IdRangePartitioner(minId, maxId);
+    }
+
+    // Shared by all partitions, so the cap applies to the job as a whole
+    @Bean
+    public ThroughputLimiter reindexLimiter(@Value("${docmgmt.reindex.max-docs-per-second:0}") int maxDocsPerSecond) {
+        return new ThroughputLimiter(maxDocsPerSecond);
+    }
+
+    @Bean(name = "reindexExecutor")
+    public ThreadPoolTaskExecutor reindexExecutor(@Value("${docmgmt.reindex.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("reindex-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+
+    @Bean
+    public Step reindexPrepareStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                   SearchIndexService searchIndexService, DocumentRepository documentRepository) {
+        return new StepBuilder("reindexPrepareStep", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    ExecutionContext jobContext = chunkContext.getStepContext().getStepExecution()
+                            .getJobExecution().getExecutionContext();
+                    // Taken before the range is read, every row committed later is caught up at the switch
+                    LocalDateTime startedAt = LocalDateTime.now();
+                    String index = searchIndexService.createIndex();
+                    searchIndexService.startBulkLoad(index);
+                    Long minId = documentRepository.findMinId();
+                    Long maxId = documentRepository.findMaxId();
+                    jobContext.putString(TARGET_INDEX, index);
+                    jobContext.putLong(MIN_ID, minId != null ? minId : 1);
+                    jobContext.putLong(MAX_ID, maxId != null ? maxId : 0);
+                    jobContext.putString(STARTED_AT, startedAt.toString());
+                    log.info("Reindexing documents {} to {} into {}", minId, maxId, index);
+                    return RepeatStatus.FINISHED;
+                }, transactionManager)
+                .build();
+    }
+
+    @Bean
+    public Step reindexStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                            DocumentIdRangeReader reindexReader, ElasticBulkItemWriter reindexWriter,
+                            @Value("${docmgmt.reindex.bulk-size:1000}") int bulkSize) {
+        return new StepBuilder(WORKER_STEP_NAME, jobRepository)
+                .<Document, Document>chunk(bulkSize, transactionManager)
+                .reader(reindexReader)
+                .writer(reindexWriter)
+                .build();
+    }
+
+    @Bean
+    public Step partitionedReindexStep(JobRepository jobRepository, @Qualifier("reindexStep") Step reindexStep,
+                                       IdRangePartitioner reindexPartitioner,
+                                       @Qualifier("reindexExecutor") TaskExecutor reindexExecutor,
+                                       @Value("${docmgmt.reindex.threads:4}") int threads) {
+        return new StepBuilder(MANAGER_STEP_NAME, jobRepository)
+                .partitioner(WORKER_STEP_NAME, reindexPartitioner)
+                .step(reindexStep)
+                .gridSize(threads)
+                .taskExecutor(reindexExecutor)
+                .build();
+    }
+
+    @Bean
+    public Step reindexSwitchStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                  SearchIndexService searchIndexService, SearchCacheVersion searchCacheVersion,
+                                  @Value("${docmgmt.reindex.bulk-size:1000}") int bulkSize,
+                                  @Value("${docmgmt.reindex.catch-up-margin:PT5M}") Duration catchUpMargin) {
+        return new StepBuilder("reindexSwitchStep", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    ExecutionContext jobContext = chunkContext.getStepContext().getStepExecution()
+                            .getJobExecution().getExecutionContext();
+                    String index = jobContext.getString(TARGET_INDEX);
+                    searchIndexService.finishBulkLoad(index);
+                    searchIndexService.switchAlias(index);
+                    // The outbox relay now writes through the alias into the new index; copy what it
+                    // wrote into the old one while the range was being copied. Pooled ids are not
+                    // committed in id order, so a row below maxId can commit after its range was read;
+                    // rows are matched by the time they were stored, the margin covers transactions
+                    // that were open when the job started and clock differences between nodes
+                    LocalDateTime since = LocalDateTime.parse(jobContext.getString(STARTED_AT)).minus(catchUpMargin);
+                    long caughtUp = searchIndexService.indexStoredSince(index, jobContext.getLong(MAX_ID), since, bulkSize);
+                    log.info("Indexed {} documents stored during the reindex into {}", caughtUp, index);
+                    searchIndexService.deleteOldIndices(index);
+                    searchCacheVersion.bump();
+                    return RepeatStatus.FINISHED;
+                }, transactionManager)
+                .build();
+    }
+
+    @Bean
+    public Job reindexDocumentsJob(JobRepository jobRepository,
+                                   @Qualifier("reindexPrepareStep") Step reindexPrepareStep,
+                                   @Qualifier("partitionedReindexStep") Step partitionedReindexStep,
+                                   @Qualifier("reindexSwitchStep") Step reindexSwitchStep) {
+        return new JobBuilder(JOB_NAME, jobRepository)
+                .start(reindexPrepareStep)
+                .next(partitionedReindexStep)
+                .next(reindexSwitchStep)
+                .build();
+    }
+}
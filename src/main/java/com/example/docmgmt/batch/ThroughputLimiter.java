@@ -0,0 +1,31 @@
+package com.example.docmgmt.batch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Caps the number of items per second across all threads sharing this instance. Each caller
+ * reserves the time its items cost and waits until its reservation starts; zero means no cap.
+ */
+public class ThroughputLimiter {
+
+    private final long nanosPerItem;
+    private final AtomicLong nextFree = new AtomicLong();
+
+    public ThroughputLimiter(int maxItemsPerSecond) {
+        this.nanosPerItem = maxItemsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxItemsPerSecond : 0;
+    }
+
+    public void acquire(int items) {
+        if (nanosPerItem == 0 || items <= 0) {
+            return;
+        }
+        long cost = nanosPerItem * items;
+        long end = nextFree.accumulateAndGet(cost, (free, reserved) -> Math.max(free, System.nanoTime()) + reserved);
+        long wait = end - cost - System.nanoTime();
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+}
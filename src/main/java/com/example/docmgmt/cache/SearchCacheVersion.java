@@ -0,0 +1,62 @@
+package com.example.docmgmt.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generation number that is part of every search cache key. Indexing new documents bumps it, so
+ * all nodes stop reading the older entries, which then simply expire. The shared value is re-read
+ * from Redis at most every {@code version-refresh-ms}.
+ */
+@Component
+public class SearchCacheVersion {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchCacheVersion.class);
+
+    static final String KEY = "docmgmt:cache:search-version";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final long refreshMs;
+    private final AtomicLong version = new AtomicLong();
+    private volatile long refreshedAt;
+
+    public SearchCacheVersion(RedisTemplate<String, Object> redisTemplate,
+                              @Value("${docmgmt.cache.version-refresh-ms:2000}") long refreshMs) {
+        this.redisTemplate = redisTemplate;
+        this.refreshMs = refreshMs;
+    }
+
+    public long current() {
+        long now = System.currentTimeMillis();
+        if (now - refreshedAt >= refreshMs) {
+            refreshedAt = now;
+            try {
+                Object shared = redisTemplate.opsForValue().get(KEY);
+                if (shared instanceof Number number) {
+                    version.set(number.longValue());
+                }
+            } catch (RuntimeException e) {
+                logger.debug("Could not read search cache version, keeping {}: {}", version.get(), e.getMessage());
+            }
+        }
+        return version.get();
+    }
+
+    public void bump() {
+        try {
+            Long next = redisTemplate.opsForValue().increment(KEY);
+            if (next != null) {
+                version.set(next);
+                return;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not bump search cache version in Redis: {}", e.getMessage());
+        }
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.docmgmt.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps every cache of the shared (Redis) cache manager in a {@link TwoLevelCache} with its own
+ * weight-bounded Caffeine tier.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final CacheManager remoteCacheManager;
+    private final MeterRegistry meterRegistry;
+    private final long localMaxWeight;
+    private final Duration localTtl;
+    private final Weigher<Object, Object> weigher;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, MeterRegistry meterRegistry,
+                                long localMaxWeight, Duration localTtl, Weigher<Object, Object> weigher) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.meterRegistry = meterRegistry;
+        this.localMaxWeight = localMaxWeight;
+        this.localTtl = localTtl;
+        this.weigher = weigher;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private Cache createCache(String name) {
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            throw new IllegalStateException("No shared cache named " + name);
+        }
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> local = Caffeine.newBuilder()
+                .maximumWeight(localMaxWeight)
+                .weigher(weigher)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, name + ".local");
+        return new TwoLevelCache(name, local, remote, meterRegistry);
+    }
+}
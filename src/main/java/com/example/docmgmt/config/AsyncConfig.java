@@ -0,0 +1,76 @@
+package com.example.docmgmt.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionException;
+
+@Configuration
+public class AsyncConfig {
+
+    @Bean(name = "extractionExecutor")
+    public ThreadPoolTaskExecutor extractionExecutor(@Value("${docmgmt.extraction.core-pool-size:4}") int corePoolSize,
+                                                     @Value("${docmgmt.extraction.max-pool-size:8}") int maxPoolSize,
+                                                     @Value("${docmgmt.extraction.queue-capacity:100}") int queueCapacity,
+                                                     MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder("docmgmt.extraction.rejected")
+                .description("Extraction tasks rejected because the queue was full")
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("extraction-");
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        // Fail fast instead of blocking the request thread, the controller turns this into a 429
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("Extraction queue is full");
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+
+        Gauge.builder("docmgmt.extraction.queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Extraction tasks waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("docmgmt.extraction.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Extraction workers currently parsing a document")
+                .register(meterRegistry);
+        Gauge.builder("docmgmt.extraction.pool.size", executor, ThreadPoolTaskExecutor::getPoolSize)
+                .description("Extraction worker threads alive")
+                .register(meterRegistry);
+        return executor;
+    }
+
+    @Bean(name = "bulkExtractionExecutor")
+    public ThreadPoolTaskExecutor bulkExtractionExecutor(@Value("${docmgmt.bulk.extraction-threads:2}") int threads) {
+        // Kept apart from the extraction executor so a bulk job never fills the queue single uploads depend on.
+        // Each job only submits one publish window at a time, which bounds the otherwise unbounded queue.
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("bulk-extraction-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+
+    @Bean(name = "bulkIngestExecutor")
+    public ThreadPoolTaskExecutor bulkIngestExecutor(@Value("${docmgmt.bulk.concurrent-jobs:2}") int concurrentJobs,
+                                                     @Value("${docmgmt.bulk.queued-jobs:10}") int queuedJobs) {
+        // Coordinates bulk jobs only, the extraction itself runs on the bulk extraction executor
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("bulk-ingest-");
+        executor.setCorePoolSize(concurrentJobs);
+        executor.setMaxPoolSize(concurrentJobs);
+        executor.setQueueCapacity(queuedJobs);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.docmgmt.config;
+
+import com.example.docmgmt.cache.TwoLevelCacheManager;
+import com.example.docmgmt.model.SliceResult;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.cache.interceptor.LoggingCacheErrorHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.cache.NullUserCache;
+import org.springframework.security.core.userdetails.cache.SpringCacheBasedUserCache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+@Configuration
+public class CacheConfig implements CachingConfigurer {
+
+    public static final String QA_RESULTS = "qaResults";
+    public static final String USERS = "users";
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory, MeterRegistry meterRegistry,
+                                     @Value("${docmgmt.cache.default-ttl:PT30M}") Duration defaultTtl,
+                                     @Value("${docmgmt.cache.qa-results.ttl:PT10M}") Duration qaResultsTtl,
+                                     @Value("${docmgmt.cache.local.max-weight:20000}") long localMaxWeight,
+                                     @Value("${docmgmt.cache.local.ttl:PT1M}") Duration localTtl) {
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(defaultTtl)
+                .disableCachingNullValues()
+                .prefixCacheNameWith("docmgmt:");
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
+                .cacheDefaults(defaults)
+                .withInitialCacheConfigurations(Map.of(QA_RESULTS, defaults.entryTtl(qaResultsTtl)))
+                .enableStatistics()
+                .build();
+        redisCacheManager.afterPropertiesSet();
+
+        Duration boundedLocalTtl = localTtl.compareTo(qaResultsTtl) < 0 ? localTtl : qaResultsTtl;
+        return new TwoLevelCacheManager(redisCacheManager, meterRegistry, localMaxWeight, boundedLocalTtl, weigher());
+    }
+
+    // Annotation-driven caching treats a failing cache as a miss instead of failing the call
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new LoggingCacheErrorHandler();
+    }
+
+    // Kept in process only, so account details never leave the node that loaded them
+    @Bean
+    public UserCache userCache(@Value("${docmgmt.security.user-cache.enabled:false}") boolean enabled,
+                               @Value("${docmgmt.security.user-cache.max-size:10000}") long maxSize,
+                               @Value("${docmgmt.security.user-cache.ttl:PT5M}") Duration ttl) {
+        if (!enabled) {
+            return new NullUserCache();
+        }
+        return new SpringCacheBasedUserCache(new CaffeineCache(USERS, Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build()));
+    }
+
+    // Weight is roughly the number of rows held, so one large result page counts for more than a small one
+    private static Weigher<Object, Object> weigher() {
+        return (key, value) -> {
+            if (value instanceof SliceResult<?> slice) {
+                return 1 + slice.getItems().size();
+            }
+            if (value instanceof Collection<?> collection) {
+                return 1 + collection.size();
+            }
+            return 1;
+        };
+    }
+}
@@ -1,9 +1,16 @@
 package com.example.docmgmt.config;
 
+import com.example.docmgmt.service.TokenStore;
 import com.example.docmgmt.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,16 +22,31 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.List;
 
+/**
+ * Authenticates requests carrying a bearer token. By default the principal is built from the
+ * authorities signed into the token, so no user lookup happens per request and a role change takes
+ * effect when the user's current token expires. With docmgmt.security.user-cache.enabled the account
+ * is re-checked through a bounded, expiring user cache instead.
+ */
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final UserDetailsService userDetailsService;
+    private final UserCache userCache;
     private final JwtUtil jwtUtil;
+    private final TokenStore tokenStore;
+    private final boolean userCacheEnabled;
 
-    public JwtRequestFilter(@Lazy UserDetailsService userDetailsService, JwtUtil jwtUtil) {
+    public JwtRequestFilter(@Lazy UserDetailsService userDetailsService, @Lazy UserCache userCache, JwtUtil jwtUtil,
+                            @Lazy TokenStore tokenStore,
+                            @Value("${docmgmt.security.user-cache.enabled:false}") boolean userCacheEnabled) {
         this.userDetailsService = userDetailsService;
+        this.userCache = userCache;
         this.jwtUtil = jwtUtil;
+        this.tokenStore = tokenStore;
+        this.userCacheEnabled = userCacheEnabled;
     }
 
     @Override
@@ -38,23 +60,48 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            username = jwtUtil.extractUsername(jwt);
+            try {
+                // One verification covers signature, expiry and every claim used below
+                claims = jwtUtil.verify(authorizationHeader.substring(7));
+            } catch (JwtException e) {
+                // Left unauthenticated, the security rules answer with 401/403
+                logger.debug("Rejected bearer token: " + e.getMessage());
+            }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+        if (claims != null && claims.getId() != null && tokenStore.isRevoked(claims.getId())) {
+            logger.debug("Rejected revoked token " + claims.getId());
+            claims = null;
+        }
+
+        if (claims != null && claims.getSubject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = resolveUser(claims);
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
         chain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private UserDetails resolveUser(Claims claims) {
+        String username = claims.getSubject();
+        if (!userCacheEnabled) {
+            List<GrantedAuthority> authorities = JwtUtil.getAuthorities(claims);
+            if (!authorities.isEmpty()) {
+                // The signature already proves who the user is and which roles they were issued
+                return User.withUsername(username).password("").authorities(authorities).build();
+            }
+        }
+        UserDetails userDetails = userCache.getUserFromCache(username);
+        if (userDetails == null) {
+            userDetails = userDetailsService.loadUserByUsername(username);
+            userCache.putUserInCache(userDetails);
+        }
+        return userDetails;
+    }
+}
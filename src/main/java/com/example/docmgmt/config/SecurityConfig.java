@@ -29,7 +29,12 @@ public class SecurityConfig {
                 .headers(headers -> headers.frameOptions(frame -> frame.disable()))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/h2-console/**").permitAll() // Add this line
+                        .requestMatchers("/api/auth/users/**").hasRole("ADMIN")
                         .requestMatchers("/api/auth/**", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+                        .requestMatchers("/api/documents/failed/**").hasRole("ADMIN")
+                        .requestMatchers("/api/batch/**").hasRole("ADMIN")
                         .requestMatchers("/api/documents/**").hasAnyRole("ADMIN", "EDITOR")
                         .requestMatchers("/api/qa/**").hasAnyRole("ADMIN", "EDITOR", "VIEWER")
                         .anyRequest().authenticated()
@@ -1,13 +1,19 @@
 package com.example.docmgmt.controller;
 
 import com.example.docmgmt.model.JwtRequest;
+import com.example.docmgmt.model.JwtResponse;
+import com.example.docmgmt.model.RefreshTokenRequest;
 import com.example.docmgmt.model.User;
 import com.example.docmgmt.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -27,17 +33,31 @@ public class AuthController {
         return ResponseEntity.ok("User registered successfully");
     }
 
-    @Operation(summary = "Login and get JWT token")
+    @Operation(summary = "Login and get JWT and refresh tokens")
     @PostMapping("/login")
-    public ResponseEntity<String> login(@RequestBody JwtRequest authenticationRequest) {
-        String token = authService.login(authenticationRequest.getUsername(), authenticationRequest.getPassword());
-        return ResponseEntity.ok(token);
+    public ResponseEntity<JwtResponse> login(@RequestBody JwtRequest authenticationRequest) {
+        JwtResponse tokens = authService.login(authenticationRequest.getUsername(), authenticationRequest.getPassword());
+        return ResponseEntity.ok(tokens);
     }
 
-    @Operation(summary = "Logout (client-side token invalidation)")
+    @Operation(summary = "Exchange a refresh token for new JWT and refresh tokens")
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponse> refresh(@RequestBody RefreshTokenRequest refreshRequest) {
+        return ResponseEntity.ok(authService.refresh(refreshRequest.getRefreshToken()));
+    }
+
+    @Operation(summary = "Change a user's role (admin only)")
+    @PutMapping("/users/{username}/role")
+    public ResponseEntity<String> changeRole(@PathVariable String username, @RequestParam String role) {
+        authService.changeRole(username, role);
+        return ResponseEntity.ok("Role updated");
+    }
+
+    @Operation(summary = "Logout, revoking the current JWT and the given refresh token")
     @PostMapping("/logout")
-    public ResponseEntity<String> logout() {
-        // Client should discard the token
+    public ResponseEntity<String> logout(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                         @RequestBody(required = false) RefreshTokenRequest refreshRequest) {
+        authService.logout(authorization, refreshRequest != null ? refreshRequest.getRefreshToken() : null);
         return ResponseEntity.ok("Logged out successfully");
     }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.example.docmgmt.controller;
+
+import com.example.docmgmt.model.BatchImportStatus;
+import com.example.docmgmt.model.ReindexStatus;
+import com.example.docmgmt.service.BatchImportService;
+import com.example.docmgmt.service.ReindexService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/batch")
+@SecurityRequirement(name = "bearerAuth")
+public class BatchController {
+
+    private final BatchImportService batchImportService;
+    private final ReindexService reindexService;
+
+    public BatchController(BatchImportService batchImportService, ReindexService reindexService) {
+        this.batchImportService = batchImportService;
+        this.reindexService = reindexService;
+    }
+
+    @Operation(summary = "Import documents from a CSV file in the import directory")
+    @PostMapping("/import")
+    public ResponseEntity<BatchImportStatus> startImport(@RequestParam String path) throws IOException {
+        return ResponseEntity.accepted().body(batchImportService.startImport(path));
+    }
+
+    @Operation(summary = "Get the progress of a CSV import")
+    @GetMapping("/import/{executionId}")
+    public ResponseEntity<BatchImportStatus> getImport(@PathVariable long executionId) {
+        return batchImportService.getImport(executionId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Rebuild the search index from the database without downtime")
+    @PostMapping("/reindex")
+    public ResponseEntity<ReindexStatus> startReindex() {
+        return ResponseEntity.accepted().body(reindexService.startReindex());
+    }
+
+    @Operation(summary = "Get the progress of a search index rebuild")
+    @GetMapping("/reindex/{executionId}")
+    public ResponseEntity<ReindexStatus> getReindex(@PathVariable long executionId) {
+        return reindexService.getReindex(executionId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
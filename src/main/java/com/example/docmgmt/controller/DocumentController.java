@@ -1,15 +1,28 @@
 package com.example.docmgmt.controller;
 
+import com.example.docmgmt.messaging.DocumentPublisher;
+import com.example.docmgmt.model.BulkIngestJob;
+import com.example.docmgmt.model.CursorPage;
 import com.example.docmgmt.model.DocumentDTO;
+import com.example.docmgmt.model.SliceResult;
+import com.example.docmgmt.model.SpooledFile;
+import com.example.docmgmt.service.BulkIngestService;
 import com.example.docmgmt.service.DocumentService;
+import com.example.docmgmt.service.FileSpoolService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/documents")
@@ -17,9 +30,19 @@ import java.io.IOException;
 public class DocumentController {
 
     private final DocumentService documentService;
+    private final FileSpoolService fileSpoolService;
+    private final BulkIngestService bulkIngestService;
+    private final DocumentPublisher documentPublisher;
+    private final long retryAfterSeconds;
 
-    public DocumentController(DocumentService documentService) {
+    public DocumentController(DocumentService documentService, FileSpoolService fileSpoolService,
+                              BulkIngestService bulkIngestService, DocumentPublisher documentPublisher,
+                              @Value("${docmgmt.extraction.retry-after-seconds:5}") long retryAfterSeconds) {
         this.documentService = documentService;
+        this.fileSpoolService = fileSpoolService;
+        this.bulkIngestService = bulkIngestService;
+        this.documentPublisher = documentPublisher;
+        this.retryAfterSeconds = retryAfterSeconds;
     }
 
     @Operation(summary = "Upload a file with metadata")
@@ -31,17 +54,62 @@ public class DocumentController {
             return ResponseEntity.badRequest().body("File is empty");
         }
 
+        SpooledFile spooledFile;
         try {
-            byte[] fileBytes = file.getBytes();
-            String originalFilename = file.getOriginalFilename();
-            documentService.processDocumentAsync(fileBytes, originalFilename, metadataJson);
+            spooledFile = fileSpoolService.spool(file);
         } catch (IOException e) {
             return ResponseEntity.internalServerError().body("Failed to read file content");
         }
 
+        String originalFilename = file.getOriginalFilename();
+        if (documentService.linkDuplicate(spooledFile, originalFilename, metadataJson)) {
+            return ResponseEntity.accepted().body("Document content already stored, metadata accepted for processing");
+        }
+
+        try {
+            documentService.processDocumentAsync(spooledFile, originalFilename, metadataJson);
+        } catch (TaskRejectedException e) {
+            fileSpoolService.discard(spooledFile.getPath());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body("Document extraction is at capacity, retry later");
+        }
+
         return ResponseEntity.accepted().body("Document upload accepted for processing with metadata");
     }
 
+    @Operation(summary = "Bulk upload many files or a ZIP/TAR archive with a per-entry metadata manifest")
+    @PostMapping(value = "/bulk", consumes = "multipart/form-data")
+    public ResponseEntity<BulkIngestJob> bulkUpload(
+            @RequestPart(value = "files", required = false) List<MultipartFile> files,
+            @RequestPart(value = "archive", required = false) MultipartFile archive,
+            @RequestParam(value = "manifest", required = false) String manifestJson,
+            @RequestParam(value = "metadata", required = false) String metadataJson) {
+        try {
+            return ResponseEntity.accepted().body(bulkIngestService.submit(files, archive, manifestJson, metadataJson));
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .build();
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @Operation(summary = "Get the per-entry results of a bulk upload")
+    @GetMapping("/bulk/{jobId}")
+    public ResponseEntity<BulkIngestJob> getBulkJob(@PathVariable String jobId) {
+        return bulkIngestService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Move parked documents back to the ingest queue")
+    @PostMapping("/failed/replay")
+    public ResponseEntity<Map<String, Integer>> replayFailed(@RequestParam(defaultValue = "100") int max) {
+        return ResponseEntity.ok(Map.of("replayed", documentPublisher.replayParked(max)));
+    }
+
     @Operation(summary = "Get paginated documents with filters")
     @GetMapping
     public ResponseEntity<Page<DocumentDTO>> getDocuments(
@@ -52,4 +120,26 @@ public class DocumentController {
             @RequestParam(defaultValue = "createdAt,desc") String sort) {
         return ResponseEntity.ok(documentService.getDocuments(author, type, page, size, sort));
     }
+
+    @Operation(summary = "Get documents with filters without counting the total")
+    @GetMapping("/slice")
+    public ResponseEntity<SliceResult<DocumentDTO>> getDocumentSlice(
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt,desc") String sort,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ResponseEntity.ok(documentService.getDocumentSlice(author, type, page, size, sort, withTotal));
+    }
+
+    @Operation(summary = "Get documents newest first using a continuation cursor")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<DocumentDTO>> getDocumentsByCursor(
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(documentService.getDocumentsAfter(author, type, cursor, size));
+    }
 }
@@ -1,17 +1,18 @@
 package com.example.docmgmt.controller;
 
-import com.example.docmgmt.model.Document;
+import com.example.docmgmt.model.SearchResultDTO;
+import com.example.docmgmt.model.SliceResult;
 import com.example.docmgmt.service.QnAService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/qa")
 @SecurityRequirement(name = "bearerAuth")
@@ -25,7 +26,18 @@ public class QnAController {
 
     @Operation(summary = "Search documents by keyword")
     @GetMapping("/search")
-    public ResponseEntity<List<Document>> search(@RequestParam String query) {
-        return ResponseEntity.ok(qnAService.searchDocuments(query));
+    public ResponseEntity<SliceResult<SearchResultDTO>> search(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(qnAService.searchDocuments(query, page, size));
+    }
+
+    @Operation(summary = "Get the full text of a document found by search")
+    @GetMapping(value = "/documents/{id}/content", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> getContent(@PathVariable Long id) {
+        return qnAService.getContent(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
-}
\ No newline at end of file
+}
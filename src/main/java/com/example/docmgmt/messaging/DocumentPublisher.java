@@ -0,0 +1,109 @@
+package com.example.docmgmt.messaging;
+
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.model.DocumentMessage;
+import com.example.docmgmt.service.ContentStore;
+import com.rabbitmq.client.GetResponse;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Publishes documents to {@code documentQueue}. Extracted text at or above the configured size is
+ * written to the {@link ContentStore} and only its reference travels on the broker (claim check).
+ */
+@Component
+public class DocumentPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ContentStore contentStore;
+    private final boolean claimCheckEnabled;
+    private final int claimCheckMinChars;
+
+    public DocumentPublisher(RabbitTemplate rabbitTemplate, ContentStore contentStore,
+                             @Value("${docmgmt.messaging.claim-check.enabled:true}") boolean claimCheckEnabled,
+                             @Value("${docmgmt.messaging.claim-check.min-chars:16384}") int claimCheckMinChars) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.contentStore = contentStore;
+        this.claimCheckEnabled = claimCheckEnabled;
+        this.claimCheckMinChars = claimCheckMinChars;
+    }
+
+    public void publish(Document document) {
+        rabbitTemplate.convertAndSend("documentQueue", toMessage(document), DocumentPublisher::stamp);
+    }
+
+    public void publishBatch(List<Document> documents) {
+        List<DocumentMessage> messages = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            messages.add(toMessage(document));
+        }
+        // One channel for the whole batch instead of a checkout per message
+        rabbitTemplate.invoke(operations -> {
+            for (DocumentMessage message : messages) {
+                operations.convertAndSend("documentQueue", message, DocumentPublisher::stamp);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Moves up to {@code max} parked messages from the parking-lot queue back to documentQueue.
+     * Each message is published before it is acknowledged, so a failure in between can only leave
+     * a duplicate, which the listener recognises by its ingest id.
+     */
+    public int replayParked(int max) {
+        Integer replayed = rabbitTemplate.execute(channel -> {
+            int count = 0;
+            GetResponse response;
+            while (count < max && (response = channel.basicGet(RabbitMQConfig.DOCUMENT_FAILED_QUEUE, false)) != null) {
+                channel.basicPublish("", RabbitMQConfig.DOCUMENT_QUEUE, response.getProps(), response.getBody());
+                channel.basicAck(response.getEnvelope().getDeliveryTag(), false);
+                count++;
+            }
+            return count;
+        });
+        return replayed != null ? replayed : 0;
+    }
+
+    // The publish time lets the listener report ingest lag
+    private static Message stamp(Message message) {
+        message.getMessageProperties().setTimestamp(new Date());
+        return message;
+    }
+
+    DocumentMessage toMessage(Document document) {
+        if (document.getIngestId() == null) {
+            document.setIngestId(UUID.randomUUID().toString());
+        }
+        DocumentMessage message = new DocumentMessage();
+        message.setIngestId(document.getIngestId());
+        message.setTitle(document.getTitle());
+        message.setAuthor(document.getAuthor());
+        message.setType(document.getType());
+        message.setCreatedAt(document.getCreatedAt());
+        message.setContentHash(document.getContentHash());
+
+        String content = document.getContent();
+        if (content != null) {
+            if (claimCheckEnabled && document.getContentHash() != null && content.length() >= claimCheckMinChars) {
+                try {
+                    message.setContentRef(contentStore.put(document.getContentHash(), content));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to store content for " + document.getTitle(), e);
+                }
+            } else {
+                message.setContent(content);
+            }
+        }
+        return message;
+    }
+}
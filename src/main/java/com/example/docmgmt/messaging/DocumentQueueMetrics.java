@@ -0,0 +1,96 @@
+package com.example.docmgmt.messaging;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consumer utilisation and lag of the documentQueue listener. Queue depth is polled from the
+ * broker on a schedule rather than on every scrape.
+ */
+@Component
+public class DocumentQueueMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentQueueMetrics.class);
+
+    public static final String LISTENER_ID = "documentQueueListener";
+
+    private final AmqpAdmin amqpAdmin;
+    private final RabbitListenerEndpointRegistry endpointRegistry;
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicInteger busyConsumers = new AtomicInteger();
+    private final Timer lag;
+
+    public DocumentQueueMetrics(MeterRegistry meterRegistry, AmqpAdmin amqpAdmin,
+                                RabbitListenerEndpointRegistry endpointRegistry) {
+        this.amqpAdmin = amqpAdmin;
+        this.endpointRegistry = endpointRegistry;
+
+        Gauge.builder("docmgmt.ingest.queue.depth", queueDepth, AtomicLong::get)
+                .description("Messages waiting in documentQueue")
+                .register(meterRegistry);
+        Gauge.builder("docmgmt.ingest.consumers.active", this, DocumentQueueMetrics::activeConsumers)
+                .description("documentQueue consumers currently started")
+                .register(meterRegistry);
+        Gauge.builder("docmgmt.ingest.consumers.busy", busyConsumers, AtomicInteger::get)
+                .description("documentQueue consumers currently processing a batch")
+                .register(meterRegistry);
+        Gauge.builder("docmgmt.ingest.consumers.utilisation", this, DocumentQueueMetrics::utilisation)
+                .description("Share of started documentQueue consumers that are processing a batch")
+                .register(meterRegistry);
+        this.lag = Timer.builder("docmgmt.ingest.lag")
+                .description("Time from publishing a document to it being stored")
+                .register(meterRegistry);
+    }
+
+    public void batchStarted() {
+        busyConsumers.incrementAndGet();
+    }
+
+    public void batchFinished() {
+        busyConsumers.decrementAndGet();
+    }
+
+    public void recordLag(Date publishedAt) {
+        if (publishedAt != null) {
+            lag.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - publishedAt.getTime())));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${docmgmt.messaging.metrics.depth-poll-ms:10000}")
+    public void refreshQueueDepth() {
+        try {
+            QueueInformation info = amqpAdmin.getQueueInfo(RabbitMQConfig.DOCUMENT_QUEUE);
+            if (info != null) {
+                queueDepth.set(info.getMessageCount());
+            }
+        } catch (AmqpException e) {
+            logger.debug("Could not read depth of {}: {}", RabbitMQConfig.DOCUMENT_QUEUE, e.getMessage());
+        }
+    }
+
+    private double activeConsumers() {
+        MessageListenerContainer container = endpointRegistry.getListenerContainer(LISTENER_ID);
+        return container instanceof SimpleMessageListenerContainer simple ? simple.getActiveConsumerCount() : 0;
+    }
+
+    private double utilisation() {
+        double active = activeConsumers();
+        return active > 0 ? busyConsumers.get() / active : 0;
+    }
+}
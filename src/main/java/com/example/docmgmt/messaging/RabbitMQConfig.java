@@ -1,21 +1,64 @@
 package com.example.docmgmt.messaging;
 
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class RabbitMQConfig {
 
+    public static final String DOCUMENT_QUEUE = "documentQueue";
+    public static final String DOCUMENT_FAILED_QUEUE = "documentQueue.failed";
+
     @Bean
     public Queue documentQueue() {
-        return new Queue("documentQueue", true);
+        return new Queue(DOCUMENT_QUEUE, true);
+    }
+
+    // Parking lot for messages that could not be stored; inspected and replayed by hand
+    @Bean
+    public Queue documentFailedQueue() {
+        return new Queue(DOCUMENT_FAILED_QUEUE, true);
     }
 
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
     }
+
+    /**
+     * Delivers documentQueue messages to the listener in lists of up to {@code batch-size}, or
+     * whatever arrived within {@code receive-timeout-ms}, so each list can be stored with one
+     * saveAll together with its search outbox events. Consumers scale between {@code min-consumers}
+     * and {@code max-consumers} with the backlog, and every message is acknowledged by the
+     * listener only once it is stored, or parked. Indexing is left to the outbox relay.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory documentBatchListenerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            @Value("${docmgmt.messaging.listener.batch-size:100}") int batchSize,
+            @Value("${docmgmt.messaging.listener.receive-timeout-ms:1000}") long receiveTimeoutMs,
+            @Value("${docmgmt.messaging.listener.min-consumers:1}") int minConsumers,
+            @Value("${docmgmt.messaging.listener.max-consumers:4}") int maxConsumers,
+            @Value("${docmgmt.messaging.listener.prefetch:250}") int prefetch) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        factory.setConcurrentConsumers(minConsumers);
+        factory.setMaxConcurrentConsumers(Math.max(minConsumers, maxConsumers));
+        // The broker must be allowed to hand over at least a full batch
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        return factory;
+    }
 }
@@ -1,57 +1,264 @@
 package com.example.docmgmt.messaginglistner;
 
+import com.example.docmgmt.messaging.DocumentQueueMetrics;
+import com.example.docmgmt.messaging.RabbitMQConfig;
 import com.example.docmgmt.model.Document;
-import com.example.docmgmt.model.ElasticDocument;
+import com.example.docmgmt.model.DocumentMessage;
 import com.example.docmgmt.repository.DocumentRepository;
-import com.example.docmgmt.repository.ElasticDocumentRepository;
+import com.example.docmgmt.service.ContentStore;
+import com.example.docmgmt.service.DocumentContentService;
+import com.example.docmgmt.service.SearchOutboxService;
+import com.rabbitmq.client.Channel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Consumes documentQueue in batches. Each batch is stored with one saveAll, together with its search
+ * outbox events in the same transaction; {@link com.example.docmgmt.service.SearchOutboxRelay}
+ * indexes them afterwards, so a slow or failing Elasticsearch never holds up storing. When the batch
+ * save fails the items are retried one by one and only the items that still fail are moved to the
+ * parking-lot queue, so one bad document does not send the whole batch back to the broker. Each
+ * message is acknowledged once it is stored, or once it has been parked. Messages are idempotent by
+ * ingest id: a redelivered message finds the row stored the first time and is only acknowledged.
+ */
 @Component
 public class DocumentQueueListener {
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentQueueListener.class);
 
     private final DocumentRepository documentRepository;
-    private final ElasticDocumentRepository elasticRepository;
+    private final SearchOutboxService searchOutboxService;
+    private final DocumentContentService documentContentService;
+    private final ContentStore contentStore;
+    private final RabbitTemplate rabbitTemplate;
+    private final DocumentQueueMetrics documentQueueMetrics;
 
-    public DocumentQueueListener(DocumentRepository documentRepository, ElasticDocumentRepository elasticRepository) {
+    public DocumentQueueListener(DocumentRepository documentRepository, SearchOutboxService searchOutboxService,
+                                 DocumentContentService documentContentService, ContentStore contentStore,
+                                 RabbitTemplate rabbitTemplate, DocumentQueueMetrics documentQueueMetrics) {
         this.documentRepository = documentRepository;
-        this.elasticRepository = elasticRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.documentContentService = documentContentService;
+        this.contentStore = contentStore;
+        this.rabbitTemplate = rabbitTemplate;
+        this.documentQueueMetrics = documentQueueMetrics;
     }
 
-    @RabbitListener(queues = "documentQueue")
-    public void processDocument(Document document) {
+    @RabbitListener(id = DocumentQueueMetrics.LISTENER_ID, queues = RabbitMQConfig.DOCUMENT_QUEUE,
+            containerFactory = "documentBatchListenerFactory")
+    public void processDocuments(List<Message<DocumentMessage>> deliveries, Channel channel) {
+        documentQueueMetrics.batchStarted();
+        Batch batch = new Batch(channel);
         try {
-            if (document == null) {
-                logger.error("Received null document from documentQueue");
-                return;
+            logger.info("Processing batch of {} documents", deliveries.size());
+
+            // Redelivered or replayed messages resolve to the row stored the first time
+            Map<String, Document> stored = findStored(deliveries.stream()
+                    .map(delivery -> delivery.getPayload().getIngestId())
+                    .filter(Objects::nonNull)
+                    .toList());
+
+            // Resolve content per item so one bad message only costs itself
+            List<Item> candidates = new ArrayList<>(deliveries.size());
+            for (Message<DocumentMessage> delivery : deliveries) {
+                String ingestId = delivery.getPayload().getIngestId();
+                Document existing = ingestId != null ? stored.get(ingestId) : null;
+                if (existing != null) {
+                    // Its outbox event was committed with it, there is nothing left to do
+                    logger.info("Document {} already stored", delivery.getPayload().getTitle());
+                    complete(batch, delivery);
+                    continue;
+                }
+                try {
+                    candidates.add(new Item(delivery, toDocument(delivery.getPayload())));
+                } catch (Exception e) {
+                    park(batch, delivery, e);
+                }
             }
+            List<Item> prepared = candidates.isEmpty() ? List.of() : attachContent(batch, candidates);
+            List<Item> saved = prepared.isEmpty() ? List.of() : save(batch, prepared);
+            saved.forEach(item -> complete(batch, item.delivery()));
+            logger.info("Batch done: {} of {} documents saved", saved.size(), deliveries.size());
+        } catch (RuntimeException e) {
+            // Nothing may stay unacknowledged, the consumer would stall once prefetch is used up
+            logger.error("Batch of {} documents failed, returning unsettled messages to {}: {}",
+                    deliveries.size(), RabbitMQConfig.DOCUMENT_QUEUE, e.getMessage(), e);
+            deliveries.stream().filter(delivery -> !batch.isSettled(delivery)).forEach(delivery -> nack(batch, delivery));
+        } finally {
+            documentQueueMetrics.batchFinished();
+        }
+    }
 
-            logger.info("Processing document: {}", document.getTitle());
+    // Stored texts of the whole batch are looked up and written together; only when that fails is
+    // each message attached on its own, so the ones to blame can be parked
+    private List<Item> attachContent(Batch batch, List<Item> items) {
+        try {
+            documentContentService.attachAll(items.stream().map(Item::document).toList());
+            return items;
+        } catch (Exception e) {
+            logger.warn("Attaching content of {} documents failed, attaching individually: {}", items.size(), e.getMessage());
+        }
 
-            // Save to DB
-            Document savedDoc = documentRepository.save(document);
-            logger.info("Document saved to DB: {}", savedDoc.getTitle());
+        List<Item> attached = new ArrayList<>(items.size());
+        for (Item item : items) {
+            try {
+                documentContentService.attach(item.document());
+                attached.add(item);
+            } catch (Exception e) {
+                park(batch, item.delivery(), e);
+            }
+        }
+        return attached;
+    }
 
-            // Index in Elasticsearch
-            ElasticDocument elasticDoc = new ElasticDocument();
-            elasticDoc.setTitle(savedDoc.getTitle());
-            elasticDoc.setAuthor(savedDoc.getAuthor());
-            elasticDoc.setContent(savedDoc.getContent());
-            elasticDoc.setType(savedDoc.getType());
-            elasticDoc.setCreatedAt(Instant.now());
-            elasticRepository.save(elasticDoc);
-            logger.info("Document indexed in Elasticsearch: {}", elasticDoc.getTitle());
+    private List<Item> save(Batch batch, List<Item> prepared) {
+        List<Document> documents = prepared.stream().map(Item::document).toList();
+        try {
+            List<Document> savedDocs = searchOutboxService.saveAll(documents);
+            List<Item> saved = new ArrayList<>(prepared.size());
+            for (int i = 0; i < savedDocs.size(); i++) {
+                saved.add(new Item(prepared.get(i).delivery(), savedDocs.get(i)));
+            }
+            return saved;
+        } catch (Exception e) {
+            logger.warn("Batch save of {} documents failed, saving individually: {}", prepared.size(), e.getMessage());
+        }
+
+        List<Item> saved = new ArrayList<>(prepared.size());
+        for (Item item : prepared) {
+            try {
+                // Ids handed out inside the rolled back batch transaction are not valid
+                item.document().setId(null);
+                saved.add(new Item(item.delivery(), searchOutboxService.saveAll(List.of(item.document())).get(0)));
+            } catch (Exception e) {
+                // A concurrent consumer may have stored the same ingest id first
+                Document existing = item.document().getIngestId() != null
+                        ? findStored(List.of(item.document().getIngestId())).get(item.document().getIngestId())
+                        : null;
+                if (existing != null) {
+                    saved.add(new Item(item.delivery(), existing));
+                } else {
+                    park(batch, item.delivery(), e);
+                }
+            }
+        }
+        return saved;
+    }
+
+    // Stored with its outbox event: only now is the message acknowledged
+    private void complete(Batch batch, Message<DocumentMessage> delivery) {
+        if (delivery.getPayload().getContentRef() != null) {
+            contentStore.delete(delivery.getPayload().getContentRef());
+        }
+        documentQueueMetrics.recordLag(delivery.getHeaders().get(AmqpHeaders.TIMESTAMP, Date.class));
+        ack(batch, delivery);
+    }
+
+    private void park(Batch batch, Message<DocumentMessage> delivery, Exception cause) {
+        DocumentMessage message = delivery.getPayload();
+        logger.error("Error processing document {}, moving it to {}: {}",
+                message.getTitle(), RabbitMQConfig.DOCUMENT_FAILED_QUEUE, cause.getMessage(), cause);
+        try {
+            // The content reference is kept so the parked message can be replayed as is
+            rabbitTemplate.convertAndSend(RabbitMQConfig.DOCUMENT_FAILED_QUEUE, message, parked -> {
+                parked.getMessageProperties().setHeader("x-exception-message", String.valueOf(cause.getMessage()));
+                return parked;
+            });
+        } catch (AmqpException e) {
+            logger.error("Could not park document {}, returning it to {}: {}",
+                    message.getTitle(), RabbitMQConfig.DOCUMENT_QUEUE, e.getMessage());
+            nack(batch, delivery);
+            return;
+        }
+        ack(batch, delivery);
+    }
 
+    private void ack(Batch batch, Message<DocumentMessage> delivery) {
+        batch.settled.add(deliveryTag(delivery));
+        try {
+            batch.channel.basicAck(deliveryTag(delivery), false);
+        } catch (IOException e) {
+            logger.error("Could not acknowledge document {}: {}", delivery.getPayload().getTitle(), e.getMessage());
+        }
+    }
+
+    private void nack(Batch batch, Message<DocumentMessage> delivery) {
+        batch.settled.add(deliveryTag(delivery));
+        try {
+            batch.channel.basicNack(deliveryTag(delivery), false, true);
+        } catch (IOException e) {
+            logger.error("Could not reject document {}: {}", delivery.getPayload().getTitle(), e.getMessage());
+        }
+    }
+
+    private static long deliveryTag(Message<DocumentMessage> delivery) {
+        return delivery.getHeaders().get(AmqpHeaders.DELIVERY_TAG, Long.class);
+    }
+
+    private Map<String, Document> findStored(List<String> ingestIds) {
+        if (ingestIds.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return documentRepository.findByIngestIdIn(ingestIds).stream()
+                    .collect(Collectors.toMap(Document::getIngestId, Function.identity(), (first, second) -> first));
         } catch (Exception e) {
-            logger.error("Error processing document {}: {}", document.getTitle(), e.getMessage(), e);
-            throw new RuntimeException("Failed to process document", e);
+            logger.warn("Could not look up stored documents by ingest id: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private Document toDocument(DocumentMessage message) throws IOException {
+        Document document = new Document();
+        document.setIngestId(message.getIngestId());
+        document.setTitle(message.getTitle());
+        document.setAuthor(message.getAuthor());
+        document.setType(message.getType());
+        document.setContentHash(message.getContentHash());
+        document.setCreatedAt(message.getCreatedAt() != null ? message.getCreatedAt() : LocalDateTime.now());
+
+        // Resolve the claim check. When the stored file is already gone the text has been persisted
+        // by an earlier message with the same hash and attach() links to that row instead.
+        String content = message.getContent();
+        if (content == null && message.getContentRef() != null) {
+            content = contentStore.get(message.getContentRef()).orElse(null);
+        }
+        document.setContent(content);
+        return document;
+    }
+
+    private record Item(Message<DocumentMessage> delivery, Document document) {
+    }
+
+    // The channel of one listener call and the deliveries already acknowledged or returned on it
+    private static final class Batch {
+        private final Channel channel;
+        private final Set<Long> settled = new HashSet<>();
+
+        private Batch(Channel channel) {
+            this.channel = channel;
+        }
+
+        private boolean isSettled(Message<DocumentMessage> delivery) {
+            return settled.contains(deliveryTag(delivery));
         }
     }
 }
@@ -0,0 +1,24 @@
+package com.example.docmgmt.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Data
+@AllArgsConstructor
+public class BatchImportStatus {
+    private Long executionId;
+    private String inputFile;
+    private String status;
+    private String exitCode;
+    private long readCount;
+    private long writeCount;
+    private long skipCount;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
@@ -0,0 +1,26 @@
+package com.example.docmgmt.model;
+
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Data
+public class BulkEntryResult {
+
+    public enum Status { PENDING, PUBLISHED, DUPLICATE, FAILED }
+
+    private final String name;
+    private volatile Status status = Status.PENDING;
+    private volatile String error;
+
+    public BulkEntryResult(String name) {
+        this.name = name;
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        this.status = Status.FAILED;
+    }
+}
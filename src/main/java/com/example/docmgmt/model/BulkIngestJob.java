@@ -0,0 +1,33 @@
+package com.example.docmgmt.model;
+
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@Setter
+@Data
+public class BulkIngestJob {
+
+    public enum Status { RUNNING, COMPLETED, COMPLETED_WITH_ERRORS }
+
+    private final String jobId;
+    private final Instant submittedAt = Instant.now();
+    private volatile Instant completedAt;
+    private volatile Status status = Status.RUNNING;
+    private final List<BulkEntryResult> entries;
+
+    public BulkIngestJob(String jobId, List<BulkEntryResult> entries) {
+        this.jobId = jobId;
+        this.entries = entries;
+    }
+
+    public void complete() {
+        boolean failed = entries.stream().anyMatch(entry -> entry.getStatus() == BulkEntryResult.Status.FAILED);
+        this.status = failed ? Status.COMPLETED_WITH_ERRORS : Status.COMPLETED;
+        this.completedAt = Instant.now();
+    }
+}
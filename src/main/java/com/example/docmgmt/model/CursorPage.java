@@ -0,0 +1,24 @@
+package com.example.docmgmt.model;
+
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * One page of a keyset scan. {@code nextCursor} is passed back as {@code cursor} to fetch the
+ * following page and is null once the last page has been returned.
+ */
+@Getter
+@Setter
+@Data
+public class CursorPage<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
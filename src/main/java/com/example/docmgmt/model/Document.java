@@ -1,9 +1,13 @@
 package com.example.docmgmt.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -11,29 +15,58 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
-@Table(name = "documents")
+@Table(name = "documents", indexes = {
+        @Index(name = "idx_documents_content_hash", columnList = "content_hash"),
+        @Index(name = "uk_documents_ingest_id", columnList = "ingest_id", unique = true),
+        @Index(name = "idx_documents_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_documents_stored_at", columnList = "stored_at"),
+        // One per author/type filter combination, each ending in (created_at, id) so the createdAt sort needs no sort step
+        @Index(name = "idx_documents_author_created_at", columnList = "author, created_at, id"),
+        @Index(name = "idx_documents_type_created_at", columnList = "type, created_at, id"),
+        @Index(name = "idx_documents_author_type_created_at", columnList = "author, type, created_at, id")
+})
 @Data
 public class Document implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    // A pooled sequence hands out 50 ids per round trip and, unlike IDENTITY, lets Hibernate batch the inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "documents_seq")
+    @SequenceGenerator(name = "documents_seq", sequenceName = "documents_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String title;
 
-    @Lob // For large file content
+    @Transient // Extracted text in transit, persisted once per content hash in DocumentContent
     private String content;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Assigned once when the upload is published, a redelivered message resolves to the same row
+    @Column(name = "ingest_id", length = 36)
+    private String ingestId;
+
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "content_id")
+    private DocumentContent body;
+
     private String author;
     private String type;
 
-    @Column(name = "created_at", updatable = false)
+    // Part of the listing cursor, so it must always be set
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
-
-    @Lob // Fix: allow large search vector data
-    private String tsvector;
+    // Server time the row was written, unlike createdAt which comes with the upload message and can be
+    // much older; a reindex uses it to find rows stored while it was copying
+    @JsonIgnore
+    @CreationTimestamp
+    @Column(name = "stored_at", updatable = false)
+    private LocalDateTime storedAt;
 }
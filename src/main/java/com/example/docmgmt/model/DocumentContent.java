@@ -0,0 +1,47 @@
+package com.example.docmgmt.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.Length;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Extracted text, stored once per distinct upload. Documents that share the same content hash
+ * point at the same row instead of carrying their own copy.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "document_contents")
+@Data
+@NoArgsConstructor
+public class DocumentContent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Pooled like documents.id, so new texts of an import chunk are inserted in JDBC batches
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_contents_seq")
+    @SequenceGenerator(name = "document_contents_seq", sequenceName = "document_contents_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "content_hash", nullable = false, unique = true, length = 64)
+    private String contentHash;
+
+    // Mapped as text rather than @Lob, which becomes an oid on Postgres that to_tsvector cannot read
+    @Column(length = Length.LONG32)
+    private String content;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public DocumentContent(String contentHash, String content) {
+        this.contentHash = contentHash;
+        this.content = content;
+    }
+}
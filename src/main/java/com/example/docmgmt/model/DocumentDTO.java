@@ -4,6 +4,8 @@ import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
 @Getter
 @Setter
 @Data
@@ -12,11 +14,17 @@ public class DocumentDTO {
     private final String title;
     private final String author;
     private final String type;
+    private final LocalDateTime createdAt;
 
     public DocumentDTO(Long id, String title, String author, String type) {
+        this(id, title, author, type, null);
+    }
+
+    public DocumentDTO(Long id, String title, String author, String type, LocalDateTime createdAt) {
         this.id = id;
         this.title = title;
         this.author = author;
         this.type = type;
+        this.createdAt = createdAt;
     }
-}
\ No newline at end of file
+}
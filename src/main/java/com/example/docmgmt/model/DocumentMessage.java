@@ -0,0 +1,29 @@
+package com.example.docmgmt.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Payload published to documentQueue. Large extracted text is not carried inline: it is written to
+ * the content store and only {@code contentRef} travels through the broker (claim check). The
+ * {@code ingestId} identifies the upload, so delivering the same message twice stores and indexes
+ * the document once.
+ */
+@Getter
+@Setter
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DocumentMessage {
+    private String ingestId;   // stable per upload, makes redelivery and replay idempotent
+    private String title;
+    private String author;
+    private String type;
+    private LocalDateTime createdAt;
+    private String contentHash;
+    private String content;    // inline text, only set for small documents or when claim check is disabled
+    private String contentRef; // content store reference, resolved by the listener
+}
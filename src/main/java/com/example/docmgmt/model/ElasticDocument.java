@@ -6,20 +6,36 @@ import org.springframework.data.elasticsearch.annotations.DateFormat;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.IndexOptions;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
 
 import java.time.Instant;
-import java.time.LocalDateTime;
 
+// Read and written through an alias that SearchIndexService points at the current versioned index
 @Data
-@Document(indexName = "documents")
+@Document(indexName = ElasticDocument.INDEX_ALIAS, createIndex = false)
 public class ElasticDocument {
 
-    @Id
-    private String id = java.util.UUID.randomUUID().toString();
+    public static final String INDEX_ALIAS = "documents";
 
+    @Id // Document.id, so indexing the same document again overwrites instead of adding a copy
+    private String id;
+
+    // Analysed for ranked search, with a keyword sub-field for exact matching and sorting
+    @MultiField(mainField = @Field(type = FieldType.Text, analyzer = "english"),
+            otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword, ignoreAbove = 256))
     private String title;
+
+    // Offsets in the postings let the highlighter skip re-analysing the text, which ES refuses beyond
+    // index.highlight.max_analyzed_offset (1M characters) and would fail the whole search
+    @Field(type = FieldType.Text, analyzer = "english", indexOptions = IndexOptions.offsets)
     private String content;
+
+    @Field(type = FieldType.Keyword)
     private String author;
+
+    @Field(type = FieldType.Keyword)
     private String type;
 
     @Field(type = FieldType.Date, format = DateFormat.date_optional_time)
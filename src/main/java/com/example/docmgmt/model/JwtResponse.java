@@ -0,0 +1,21 @@
+package com.example.docmgmt.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Tokens handed out by login and refresh. {@code token} is sent as the Authorization header,
+ * {@code refreshToken} is exchanged once for a new pair when the access token expires.
+ */
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JwtResponse {
+    private String token;
+    private String refreshToken;
+}
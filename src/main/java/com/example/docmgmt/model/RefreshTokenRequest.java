@@ -0,0 +1,12 @@
+package com.example.docmgmt.model;
+
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Data
+public class RefreshTokenRequest {
+    private String refreshToken;
+}
@@ -0,0 +1,23 @@
+package com.example.docmgmt.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Data
+@AllArgsConstructor
+public class ReindexStatus {
+    private Long executionId;
+    private String targetIndex;
+    private String status;
+    private String exitCode;
+    private long readCount;
+    private long writeCount;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
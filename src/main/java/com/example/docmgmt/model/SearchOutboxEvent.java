@@ -0,0 +1,44 @@
+package com.example.docmgmt.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A document that still has to be written to the search index. Rows are inserted in the same
+ * transaction as the document and deleted once the relay has indexed it.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "search_outbox")
+@Data
+@NoArgsConstructor
+public class SearchOutboxEvent {
+
+    // Pooled like the documents sequence so a chunk of events is inserted as one JDBC batch
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "search_outbox_seq")
+    @SequenceGenerator(name = "search_outbox_seq", sequenceName = "search_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "document_id", nullable = false)
+    private Long documentId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Rejected bulk attempts, events reaching max-attempts are left in the table for inspection
+    private int attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public SearchOutboxEvent(Long documentId) {
+        this.documentId = documentId;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.docmgmt.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One search hit: the document's metadata, its relevance score and the highlighted fragments that
+ * matched, instead of the full body.
+ */
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String id;
+    private String title;
+    private String author;
+    private String type;
+    private Instant createdAt;
+    private Float score;
+    private List<String> highlights;
+}
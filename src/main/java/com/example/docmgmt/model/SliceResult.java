@@ -0,0 +1,36 @@
+package com.example.docmgmt.model;
+
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A page of results without an exact total. {@code approximateTotal} is only filled in when it was
+ * asked for; it is exact when {@code totalExact} is true and a lower bound otherwise.
+ */
+@Getter
+@Setter
+@Data
+public class SliceResult<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<T> items;
+    private final int page;
+    private final int size;
+    private final boolean hasNext;
+    private final Long approximateTotal;
+    private final Boolean totalExact;
+
+    public SliceResult(List<T> items, int page, int size, boolean hasNext, Long approximateTotal, Boolean totalExact) {
+        this.items = items;
+        this.page = page;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.approximateTotal = approximateTotal;
+        this.totalExact = totalExact;
+    }
+}
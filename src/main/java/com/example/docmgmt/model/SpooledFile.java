@@ -0,0 +1,22 @@
+package com.example.docmgmt.model;
+
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.nio.file.Path;
+
+@Getter
+@Setter
+@Data
+public class SpooledFile {
+    private final Path path;
+    private final String contentHash; // SHA-256 of the bytes as they arrived
+    private final long size;
+
+    public SpooledFile(Path path, String contentHash, long size) {
+        this.path = path;
+        this.contentHash = contentHash;
+        this.size = size;
+    }
+}
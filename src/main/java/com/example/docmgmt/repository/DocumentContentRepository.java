@@ -0,0 +1,17 @@
+package com.example.docmgmt.repository;
+
+import com.example.docmgmt.model.DocumentContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface DocumentContentRepository extends JpaRepository<DocumentContent, Long> {
+
+    Optional<DocumentContent> findByContentHash(String contentHash);
+
+    List<DocumentContent> findByContentHashIn(Collection<String> contentHashes);
+
+    boolean existsByContentHash(String contentHash);
+}
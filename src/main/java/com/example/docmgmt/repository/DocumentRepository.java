@@ -1,18 +1,36 @@
 package com.example.docmgmt.repository;
 
 import com.example.docmgmt.model.Document;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface DocumentRepository extends JpaRepository<Document, Long> {
+public interface DocumentRepository extends JpaRepository<Document, Long>, DocumentRepositoryCustom {
 
-    @Query(value = "SELECT * FROM documents WHERE to_tsvector('english', content) @@ plainto_tsquery(?1)", nativeQuery = true)
-    List<Document> findByFullTextSearch(String query);
+    List<Document> findByIngestIdIn(Collection<String> ingestIds);
 
-    @Query("SELECT d FROM Document d WHERE (:author IS NULL OR d.author = :author) AND (:type IS NULL OR d.type = :type)")
-    Page<Document> findByAuthorAndType(String author, String type, Pageable pageable);
-}
\ No newline at end of file
+    // Body is fetched with the documents so the outbox relay can index them without a query per row
+    @Query("SELECT d FROM Document d LEFT JOIN FETCH d.body WHERE d.id IN :ids")
+    List<Document> findWithBodyByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT MIN(d.id) FROM Document d")
+    Long findMinId();
+
+    @Query("SELECT MAX(d.id) FROM Document d")
+    Long findMaxId();
+
+    // Keyset page in id order with the body, used to stream documents into a search index
+    @Query("SELECT d FROM Document d LEFT JOIN FETCH d.body WHERE d.id > :afterId AND d.id <= :maxId ORDER BY d.id")
+    List<Document> findPageAfter(@Param("afterId") Long afterId, @Param("maxId") Long maxId, Pageable pageable);
+
+    // Keyset page in id order of the documents above maxId or stored since the given time, with the body
+    @Query("SELECT d FROM Document d LEFT JOIN FETCH d.body WHERE d.id > :afterId"
+            + " AND (d.id > :maxId OR d.storedAt >= :since) ORDER BY d.id")
+    List<Document> findPageStoredSince(@Param("afterId") Long afterId, @Param("maxId") Long maxId,
+                                       @Param("since") LocalDateTime since, Pageable pageable);
+}
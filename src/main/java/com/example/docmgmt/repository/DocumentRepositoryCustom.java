@@ -0,0 +1,48 @@
+package com.example.docmgmt.repository;
+
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.model.DocumentDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Listing queries projected into {@link DocumentDTO}. Filters that are not given are left out of
+ * the query instead of being matched with {@code :param IS NULL OR ...}, so each combination can
+ * use the index built for it.
+ */
+public interface DocumentRepositoryCustom {
+
+    Page<DocumentDTO> findSummaries(String author, String type, Pageable pageable);
+
+    /**
+     * Same rows as {@link #findSummaries} without the count query; one extra row is read to set
+     * {@code hasNext}.
+     */
+    Slice<DocumentDTO> findSummarySlice(String author, String type, Pageable pageable);
+
+    /**
+     * Newest first, starting after the row identified by {@code createdAt} and {@code id}, or from
+     * the newest row when both are null.
+     */
+    List<DocumentDTO> findSummariesAfter(String author, String type, LocalDateTime createdAt, Long id, int limit);
+
+    /**
+     * Number of matching rows, counted no further than {@code cap}.
+     */
+    long countUpTo(String author, String type, int cap);
+
+    /**
+     * Database full-text search, best match first. On Postgres this uses the GIN-indexed
+     * {@code search_vector} column; other databases fall back to a case-insensitive substring match.
+     * The returned documents carry a short snippet around the match in {@code content}, not the full
+     * text.
+     */
+    List<Document> searchFullText(String query, int offset, int limit);
+
+    Optional<String> findContentById(Long id);
+}
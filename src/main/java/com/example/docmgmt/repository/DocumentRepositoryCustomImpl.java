@@ -0,0 +1,202 @@
+package com.example.docmgmt.repository;
+
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.model.DocumentDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+class DocumentRepositoryCustomImpl implements DocumentRepositoryCustom {
+
+    private static final int SNIPPET_LENGTH = 150;
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public Page<DocumentDTO> findSummaries(String author, String type, Pageable pageable) {
+        List<DocumentDTO> content = summaries(author, type, null, null, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        // The count is skipped when the page itself shows the total
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(author, type));
+    }
+
+    @Override
+    public Slice<DocumentDTO> findSummarySlice(String author, String type, Pageable pageable) {
+        List<DocumentDTO> rows = summaries(author, type, null, null, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    @Override
+    public List<DocumentDTO> findSummariesAfter(String author, String type, LocalDateTime createdAt, Long id, int limit) {
+        return summaries(author, type, createdAt, id, NEWEST_FIRST)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long countUpTo(String author, String type, int cap) {
+        // A count over a limited subquery stops reading once the cap is reached
+        StringBuilder sql = new StringBuilder("SELECT count(*) FROM (SELECT 1 FROM documents d WHERE 1 = 1");
+        if (author != null) {
+            sql.append(" AND d.author = :author");
+        }
+        if (type != null) {
+            sql.append(" AND d.type = :type");
+        }
+        sql.append(" LIMIT :cap) capped");
+
+        jakarta.persistence.Query query = entityManager.createNativeQuery(sql.toString());
+        if (author != null) {
+            query.setParameter("author", author);
+        }
+        if (type != null) {
+            query.setParameter("type", type);
+        }
+        query.setParameter("cap", cap);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    @Override
+    public List<Document> searchFullText(String query, int offset, int limit) {
+        jakarta.persistence.Query search;
+        if (isPostgres()) {
+            // Only the headline leaves the database; its input is capped like the search vector's
+            search = entityManager.createNativeQuery(
+                    "SELECT d.id, d.title, d.author, d.type, d.created_at, " +
+                    "ts_headline('english', left(c.content, 500000), plainto_tsquery('english', :query), " +
+                    "'StartSel=<em>, StopSel=</em>, MinWords=15, MaxWords=30, MaxFragments=1') " +
+                    "FROM document_contents c JOIN documents d ON d.content_id = c.id " +
+                    "WHERE c.search_vector @@ plainto_tsquery('english', :query) " +
+                    "ORDER BY ts_rank(c.search_vector, plainto_tsquery('english', :query)) DESC, d.id DESC " +
+                    "LIMIT :limit OFFSET :offset");
+            search.setParameter("query", query);
+        } else {
+            // Text around the first occurrence of the query
+            search = entityManager.createNativeQuery(
+                    "SELECT d.id, d.title, d.author, d.type, d.created_at, " +
+                    "SUBSTRING(c.content, GREATEST(1, LOCATE(:term, LOWER(c.content)) - " + SNIPPET_LENGTH / 2 + "), " + SNIPPET_LENGTH + ") " +
+                    "FROM document_contents c JOIN documents d ON d.content_id = c.id " +
+                    "WHERE LOWER(c.content) LIKE :pattern ESCAPE '\\' " +
+                    "ORDER BY d.created_at DESC, d.id DESC " +
+                    "LIMIT :limit OFFSET :offset");
+            search.setParameter("term", query.toLowerCase(Locale.ROOT));
+            search.setParameter("pattern", "%" + escapeLike(query.toLowerCase(Locale.ROOT)) + "%");
+        }
+        search.setParameter("limit", limit);
+        search.setParameter("offset", offset);
+
+        List<Document> documents = new ArrayList<>();
+        for (Object row : search.getResultList()) {
+            Object[] columns = (Object[]) row;
+            Document document = new Document();
+            document.setId(((Number) columns[0]).longValue());
+            document.setTitle((String) columns[1]);
+            document.setAuthor((String) columns[2]);
+            document.setType((String) columns[3]);
+            document.setCreatedAt(toLocalDateTime(columns[4]));
+            document.setContent((String) columns[5]);
+            documents.add(document);
+        }
+        return documents;
+    }
+
+    @Override
+    public Optional<String> findContentById(Long id) {
+        return entityManager.createQuery("SELECT c.content FROM Document d JOIN d.body c WHERE d.id = :id", String.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect();
+            postgres = dialect instanceof PostgreSQLDialect;
+        }
+        return postgres;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    private TypedQuery<DocumentDTO> summaries(String author, String type, LocalDateTime createdAt, Long id, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DocumentDTO> query = cb.createQuery(DocumentDTO.class);
+        Root<Document> document = query.from(Document.class);
+        query.select(cb.construct(DocumentDTO.class, document.get("id"), document.get("title"),
+                document.get("author"), document.get("type"), document.get("createdAt")));
+
+        List<Predicate> predicates = filters(cb, document, author, type);
+        if (createdAt != null && id != null) {
+            // Seek past the last row of the previous page instead of skipping rows. The OR alone gives
+            // the index no start key, the redundant upper bound on createdAt lets the scan begin at the cursor
+            predicates.add(cb.lessThanOrEqualTo(document.<LocalDateTime>get("createdAt"), createdAt));
+            predicates.add(cb.or(
+                    cb.lessThan(document.<LocalDateTime>get("createdAt"), createdAt),
+                    cb.and(cb.equal(document.get("createdAt"), createdAt), cb.lessThan(document.<Long>get("id"), id))));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(QueryUtils.toOrders(sort, document, cb));
+        return entityManager.createQuery(query);
+    }
+
+    private long count(String author, String type) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Document> document = query.from(Document.class);
+        query.select(cb.count(document)).where(filters(cb, document, author, type).toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static List<Predicate> filters(CriteriaBuilder cb, Root<Document> document, String author, String type) {
+        List<Predicate> predicates = new ArrayList<>(3);
+        if (author != null) {
+            predicates.add(cb.equal(document.get("author"), author));
+        }
+        if (type != null) {
+            predicates.add(cb.equal(document.get("type"), type));
+        }
+        return predicates;
+    }
+}
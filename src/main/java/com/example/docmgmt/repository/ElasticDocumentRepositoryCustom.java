@@ -0,0 +1,14 @@
+package com.example.docmgmt.repository;
+
+import com.example.docmgmt.model.SearchResultDTO;
+import com.example.docmgmt.model.SliceResult;
+
+public interface ElasticDocumentRepositoryCustom {
+
+    /**
+     * Analysed multi_match over title and content, ranked by relevance. Hits carry highlighted
+     * fragments; the content field itself is not fetched. The total is the hit count as tracked
+     * by Elasticsearch, which stops counting exactly at 10,000.
+     */
+    SliceResult<SearchResultDTO> searchRanked(String query, int page, int size);
+}
@@ -0,0 +1,65 @@
+package com.example.docmgmt.repository;
+
+import com.example.docmgmt.model.ElasticDocument;
+import com.example.docmgmt.model.SearchResultDTO;
+import com.example.docmgmt.model.SliceResult;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.TotalHitsRelation;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.elasticsearch.core.query.HighlightQuery;
+import org.springframework.data.elasticsearch.core.query.highlight.Highlight;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightField;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightParameters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class ElasticDocumentRepositoryCustomImpl implements ElasticDocumentRepositoryCustom {
+
+    private static final String[] RESULT_FIELDS = {"title", "author", "type", "createdAt"};
+
+    private static final HighlightQuery HIGHLIGHT = new HighlightQuery(new Highlight(
+            HighlightParameters.builder()
+                    .withPreTags("<em>")
+                    .withPostTags("</em>")
+                    .withFragmentSize(150)
+                    .withNumberOfFragments(3)
+                    .build(),
+            List.of(new HighlightField("content"), new HighlightField("title"))), ElasticDocument.class);
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    ElasticDocumentRepositoryCustomImpl(ElasticsearchOperations elasticsearchOperations) {
+        this.elasticsearchOperations = elasticsearchOperations;
+    }
+
+    @Override
+    public SliceResult<SearchResultDTO> searchRanked(String query, int page, int size) {
+        NativeQuery searchQuery = NativeQuery.builder()
+                .withQuery(q -> q.multiMatch(m -> m.query(query).fields("title^2", "content")))
+                .withHighlightQuery(HIGHLIGHT)
+                // Highlighting reads content from _source on the server, so it can be left out of the response
+                .withSourceFilter(new FetchSourceFilter(RESULT_FIELDS, null))
+                .withPageable(PageRequest.of(page, size))
+                .build();
+
+        SearchHits<ElasticDocument> hits = elasticsearchOperations.search(searchQuery, ElasticDocument.class);
+        List<SearchResultDTO> results = new ArrayList<>(hits.getSearchHits().size());
+        for (SearchHit<ElasticDocument> hit : hits) {
+            ElasticDocument document = hit.getContent();
+            List<String> highlights = new ArrayList<>(hit.getHighlightField("content"));
+            if (highlights.isEmpty()) {
+                highlights.addAll(hit.getHighlightField("title"));
+            }
+            results.add(new SearchResultDTO(hit.getId(), document.getTitle(), document.getAuthor(), document.getType(),
+                    document.getCreatedAt(), hit.getScore(), highlights));
+        }
+        boolean hasNext = (long) (page + 1) * size < hits.getTotalHits();
+        return new SliceResult<>(results, page, size, hasNext, hits.getTotalHits(),
+                hits.getTotalHitsRelation() == TotalHitsRelation.EQUAL_TO);
+    }
+}
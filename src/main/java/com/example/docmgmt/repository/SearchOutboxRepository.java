@@ -0,0 +1,37 @@
+package com.example.docmgmt.repository;
+
+import com.example.docmgmt.model.SearchOutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SearchOutboxRepository extends JpaRepository<SearchOutboxEvent, Long> {
+
+    // Oldest pending events, locked for the caller's transaction; rows locked by another relay are
+    // skipped rather than waited for (lock timeout -2 is Hibernate's SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM SearchOutboxEvent e WHERE e.attempts < :maxAttempts ORDER BY e.id")
+    List<SearchOutboxEvent> claimPending(@Param("maxAttempts") int maxAttempts, Pageable pageable);
+
+    long countByAttemptsLessThan(int maxAttempts);
+
+    @Query("SELECT MIN(e.createdAt) FROM SearchOutboxEvent e WHERE e.attempts < :maxAttempts")
+    LocalDateTime findOldestPending(@Param("maxAttempts") int maxAttempts);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE SearchOutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error WHERE e.id IN :ids")
+    int recordFailure(@Param("ids") Collection<Long> ids, @Param("error") String error);
+}
@@ -1,31 +1,48 @@
 package com.example.docmgmt.service;
 
+import com.example.docmgmt.model.JwtResponse;
 import com.example.docmgmt.model.User;
 import com.example.docmgmt.repository.UserRepository;
 import com.example.docmgmt.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Locale;
+import java.util.Set;
+
 @Service
 public class AuthService implements UserDetailsService {
 
+    // The roles SecurityConfig grants access to. Anything else, e.g. "ROLE_ADMIN", would make
+    // loadUserByUsername fail for the user from then on.
+    private static final Set<String> ROLES = Set.of("ADMIN", "EDITOR", "VIEWER");
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final UserCache userCache;
+    private final TokenStore tokenStore;
 
     public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder,
-                       @Lazy AuthenticationManager authenticationManager, JwtUtil jwtUtil) {
+                       @Lazy AuthenticationManager authenticationManager, JwtUtil jwtUtil, UserCache userCache,
+                       TokenStore tokenStore) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
+        this.userCache = userCache;
+        this.tokenStore = tokenStore;
     }
 
     public void register(User user) {
@@ -33,12 +50,59 @@ public class AuthService implements UserDetailsService {
         userRepository.save(user);
     }
 
-    public String login(String username, String password) {
+    /**
+     * Changes the user's role and drops their cached account. Tokens already issued keep the role they
+     * were signed with until they expire.
+     */
+    public void changeRole(String username, String role) {
+        String normalized = role != null ? role.strip().toUpperCase(Locale.ROOT) : null;
+        if (!ROLES.contains(normalized)) {
+            throw new IllegalArgumentException("Role must be one of " + ROLES);
+        }
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+        user.setRole(normalized);
+        userRepository.save(user);
+        userCache.removeUserFromCache(username);
+    }
+
+    public JwtResponse login(String username, String password) {
         authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(username, password)
         );
-        UserDetails userDetails = loadUserByUsername(username);
-        return jwtUtil.generateToken(userDetails);
+        return issueTokens(loadUserByUsername(username));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access and refresh token pair. No password check runs
+     * here; the user is reloaded so the new token carries their current role. The old refresh token
+     * stops working.
+     */
+    public JwtResponse refresh(String refreshToken) {
+        String username = tokenStore.consumeRefreshToken(refreshToken)
+                .orElseThrow(() -> new BadCredentialsException("Invalid or expired refresh token"));
+        return issueTokens(loadUserByUsername(username));
+    }
+
+    /**
+     * Revokes the presented access token for the rest of its lifetime and its refresh token, if given.
+     */
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            try {
+                Claims claims = jwtUtil.verify(accessToken);
+                if (claims.getId() != null) {
+                    tokenStore.revokeAccessToken(claims.getId(), claims.getExpiration());
+                }
+            } catch (JwtException e) {
+                // Invalid or expired already, nothing left to revoke
+            }
+        }
+        tokenStore.revokeRefreshToken(refreshToken);
+    }
+
+    private JwtResponse issueTokens(UserDetails userDetails) {
+        return new JwtResponse(jwtUtil.generateToken(userDetails), tokenStore.issueRefreshToken(userDetails.getUsername()));
     }
 
     @Override
@@ -0,0 +1,121 @@
+package com.example.docmgmt.service;
+
+import com.example.docmgmt.batch.ByteRangePartitioner;
+import com.example.docmgmt.batch.DocumentBatchConfig;
+import com.example.docmgmt.batch.PartitionTotals;
+import com.example.docmgmt.model.BatchImportStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+/**
+ * Starts {@code importDocumentJob} for files below the import directory. Jobs run in the
+ * background; the returned execution id is polled for progress. Starting a failed import again
+ * resumes it, an unchanged file that was already imported is rejected.
+ */
+@Service
+public class BatchImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchImportService.class);
+
+    static final String INPUT_FILE_MODIFIED = "input.file.modified";
+
+    private final Job importDocumentJob;
+    private final JobExplorer jobExplorer;
+    private final JobLauncher jobLauncher;
+    private final Path importDir;
+
+    public BatchImportService(@Qualifier(DocumentBatchConfig.JOB_NAME) Job importDocumentJob,
+                              JobRepository jobRepository, JobExplorer jobExplorer,
+                              @Value("${docmgmt.batch.import.dir:${java.io.tmpdir}/docmgmt-import}") String importDir) throws Exception {
+        this.importDocumentJob = importDocumentJob;
+        this.jobExplorer = jobExplorer;
+        this.importDir = Files.createDirectories(Paths.get(importDir)).toRealPath();
+
+        // Requests only start the job, the import itself runs on its own thread
+        TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+        launcher.setJobRepository(jobRepository);
+        launcher.setTaskExecutor(new SimpleAsyncTaskExecutor("batch-job-"));
+        launcher.afterPropertiesSet();
+        this.jobLauncher = launcher;
+    }
+
+    public BatchImportStatus startImport(String path) throws IOException {
+        Path file = resolve(path);
+        // A changed file is a new job instance, the same file again is a restart of the previous one
+        JobParameters parameters = new JobParametersBuilder()
+                .addString(ByteRangePartitioner.INPUT_FILE, file.toString())
+                .addLong(INPUT_FILE_MODIFIED, Files.getLastModifiedTime(file).toMillis())
+                .toJobParameters();
+        try {
+            JobExecution execution = jobLauncher.run(importDocumentJob, parameters);
+            logger.info("Started import of {} as execution {}", file, execution.getId());
+            return toStatus(execution);
+        } catch (JobInstanceAlreadyCompleteException e) {
+            throw new IllegalArgumentException("File has already been imported: " + path);
+        } catch (JobExecutionAlreadyRunningException e) {
+            throw new IllegalArgumentException("An import of this file is already running: " + path);
+        } catch (JobRestartException | JobParametersInvalidException e) {
+            throw new IllegalStateException("Could not start import of " + path, e);
+        }
+    }
+
+    public Optional<BatchImportStatus> getImport(long executionId) {
+        JobExecution execution = jobExplorer.getJobExecution(executionId);
+        if (execution == null || !DocumentBatchConfig.JOB_NAME.equals(execution.getJobInstance().getJobName())) {
+            return Optional.empty();
+        }
+        return Optional.of(toStatus(execution));
+    }
+
+    // Only files inside the import directory can be imported
+    private Path resolve(String path) throws IOException {
+        if (path == null || path.isBlank()) {
+            throw new IllegalArgumentException("path must not be empty");
+        }
+        Path file = importDir.resolve(path).normalize();
+        if (!file.startsWith(importDir) || !Files.isRegularFile(file) || !Files.isReadable(file)) {
+            throw new IllegalArgumentException("No readable file " + path + " in the import directory");
+        }
+        Path real = file.toRealPath();
+        if (!real.startsWith(importDir)) {
+            throw new IllegalArgumentException("No readable file " + path + " in the import directory");
+        }
+        return real;
+    }
+
+    private static BatchImportStatus toStatus(JobExecution execution) {
+        PartitionTotals totals = PartitionTotals.of(execution, DocumentBatchConfig.WORKER_STEP_NAME);
+        return new BatchImportStatus(
+                execution.getId(),
+                execution.getJobParameters().getString(ByteRangePartitioner.INPUT_FILE),
+                execution.getStatus().name(),
+                execution.getExitStatus().getExitCode(),
+                totals.readCount(),
+                totals.writeCount(),
+                totals.skipCount(),
+                execution.getStartTime(),
+                execution.getEndTime());
+    }
+}
@@ -0,0 +1,370 @@
+package com.example.docmgmt.service;
+
+import com.example.docmgmt.messaging.DocumentPublisher;
+import com.example.docmgmt.model.BulkEntryResult;
+import com.example.docmgmt.model.BulkIngestJob;
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.model.SpooledFile;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Ingests many files in one request. Entries are spooled while the request is read, then a
+ * background coordinator extracts them in parallel on the bulk extraction executor and publishes
+ * the resulting documents to the queue in batches.
+ */
+@Service
+public class BulkIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkIngestService.class);
+
+    private final DocumentService documentService;
+    private final DocumentContentService documentContentService;
+    private final FileSpoolService fileSpoolService;
+    private final DocumentPublisher documentPublisher;
+    private final ObjectMapper objectMapper;
+    private final Executor extractionExecutor;
+    private final Executor bulkIngestExecutor;
+    private final int publishBatchSize;
+    private final int maxEntries;
+    private final long maxUncompressedBytes;
+    private final Duration jobRetention;
+
+    private final Map<String, BulkIngestJob> jobs = new ConcurrentHashMap<>();
+
+    public BulkIngestService(DocumentService documentService, DocumentContentService documentContentService,
+                             FileSpoolService fileSpoolService, DocumentPublisher documentPublisher, ObjectMapper objectMapper,
+                             @Qualifier("bulkExtractionExecutor") Executor extractionExecutor,
+                             @Qualifier("bulkIngestExecutor") Executor bulkIngestExecutor,
+                             @Value("${docmgmt.bulk.publish-batch-size:50}") int publishBatchSize,
+                             @Value("${docmgmt.bulk.max-entries:10000}") int maxEntries,
+                             @Value("${docmgmt.bulk.max-uncompressed-bytes:1073741824}") long maxUncompressedBytes,
+                             @Value("${docmgmt.bulk.job-retention:PT1H}") Duration jobRetention) {
+        this.documentService = documentService;
+        this.documentContentService = documentContentService;
+        this.fileSpoolService = fileSpoolService;
+        this.documentPublisher = documentPublisher;
+        this.objectMapper = objectMapper;
+        this.extractionExecutor = extractionExecutor;
+        this.bulkIngestExecutor = bulkIngestExecutor;
+        this.publishBatchSize = publishBatchSize;
+        this.maxEntries = maxEntries;
+        this.maxUncompressedBytes = maxUncompressedBytes;
+        this.jobRetention = jobRetention;
+    }
+
+    public BulkIngestJob submit(List<MultipartFile> files, MultipartFile archive, String manifestJson, String metadataJson)
+            throws IOException {
+        Map<String, Map<String, String>> manifest = parseManifest(manifestJson);
+        Map<String, String> defaults = parseDefaults(metadataJson);
+
+        List<BulkEntry> pending = new ArrayList<>();
+        try {
+            if (files != null) {
+                for (MultipartFile file : files) {
+                    if (!file.isEmpty()) {
+                        add(pending, file.getOriginalFilename(), fileSpoolService.spool(file));
+                    }
+                }
+            }
+            if (archive != null && !archive.isEmpty()) {
+                spoolArchive(archive, pending);
+            }
+        } catch (IOException | RuntimeException e) {
+            discardAll(pending);
+            throw e;
+        }
+        if (pending.isEmpty()) {
+            throw new IllegalArgumentException("No files to ingest");
+        }
+
+        List<BulkEntryResult> results = pending.stream().map(entry -> entry.result).toList();
+        BulkIngestJob job = new BulkIngestJob(UUID.randomUUID().toString(), results);
+        jobs.put(job.getJobId(), job);
+        try {
+            bulkIngestExecutor.execute(() -> run(job, pending, manifest, defaults));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobId());
+            discardAll(pending);
+            throw e;
+        }
+        logger.info("Bulk ingest job {} accepted with {} entries", job.getJobId(), pending.size());
+        return job;
+    }
+
+    public Optional<BulkIngestJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    @Scheduled(fixedDelayString = "${docmgmt.bulk.cleanup-interval-ms:600000}")
+    public void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minus(jobRetention);
+        jobs.values().removeIf(job -> job.getCompletedAt() != null && job.getCompletedAt().isBefore(cutoff));
+    }
+
+    private void run(BulkIngestJob job, List<BulkEntry> pending, Map<String, Map<String, String>> manifest,
+                     Map<String, String> defaults) {
+        try {
+            for (int from = 0; from < pending.size(); from += publishBatchSize) {
+                processWindow(job, pending.subList(from, Math.min(from + publishBatchSize, pending.size())), manifest, defaults);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Bulk ingest job {} aborted: {}", job.getJobId(), e.getMessage(), e);
+            for (BulkEntry entry : pending) {
+                if (entry.result.getStatus() == BulkEntryResult.Status.PENDING) {
+                    entry.result.fail("Job aborted: " + e.getMessage());
+                    fileSpoolService.discard(entry.spooledFile.getPath());
+                }
+            }
+        }
+        job.complete();
+        logger.info("Bulk ingest job {} finished with status {}", job.getJobId(), job.getStatus());
+    }
+
+    private void processWindow(BulkIngestJob job, List<BulkEntry> window, Map<String, Map<String, String>> manifest,
+                               Map<String, String> defaults) {
+        // Extract the whole window in parallel, then publish it as one batch
+        List<CompletableFuture<Document>> futures = new ArrayList<>(window.size());
+        for (BulkEntry entry : window) {
+            try {
+                futures.add(prepare(entry, metadataFor(entry.name, manifest, defaults)));
+            } catch (RuntimeException e) {
+                fileSpoolService.discard(entry.spooledFile.getPath());
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        List<Document> batch = new ArrayList<>(window.size());
+        List<BulkEntry> batchEntries = new ArrayList<>(window.size());
+        for (int i = 0; i < window.size(); i++) {
+            BulkEntry entry = window.get(i);
+            try {
+                batch.add(futures.get(i).join());
+                batchEntries.add(entry);
+            } catch (CompletionException e) {
+                Throwable cause = rootCause(e);
+                logger.warn("Bulk job {}: extraction failed for {}: {}", job.getJobId(), entry.name, cause.getMessage());
+                entry.result.fail(cause.getMessage());
+            }
+        }
+        publish(job, batch, batchEntries);
+    }
+
+    private CompletableFuture<Document> prepare(BulkEntry entry, Map<String, String> metadata) {
+        String title = StringUtils.getFilename(entry.name);
+        if (documentContentService.isKnown(entry.spooledFile.getContentHash())) {
+            entry.duplicate = true;
+            fileSpoolService.discard(entry.spooledFile.getPath());
+            return CompletableFuture.completedFuture(
+                    documentService.buildDocument(title, metadata, entry.spooledFile.getContentHash()));
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return documentService.extractDocument(entry.spooledFile, title, metadata);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                } finally {
+                    fileSpoolService.discard(entry.spooledFile.getPath());
+                }
+            }, extractionExecutor);
+        } catch (RejectedExecutionException e) {
+            // Only happens while shutting down, the bulk extraction queue is not bounded
+            fileSpoolService.discard(entry.spooledFile.getPath());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void publish(BulkIngestJob job, List<Document> batch, List<BulkEntry> batchEntries) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            documentPublisher.publishBatch(batch);
+            for (BulkEntry entry : batchEntries) {
+                entry.result.setStatus(entry.duplicate ? BulkEntryResult.Status.DUPLICATE : BulkEntryResult.Status.PUBLISHED);
+            }
+        } catch (Exception e) {
+            logger.error("Bulk job {}: failed to publish batch of {} documents: {}", job.getJobId(), batch.size(), e.getMessage(), e);
+            batchEntries.forEach(entry -> entry.result.fail("Failed to publish: " + e.getMessage()));
+        }
+    }
+
+    private void spoolArchive(MultipartFile archive, List<BulkEntry> pending) throws IOException {
+        String archiveName = Optional.ofNullable(archive.getOriginalFilename()).orElse("").toLowerCase(Locale.ROOT);
+        try (InputStream inputStream = archive.getInputStream()) {
+            if (archiveName.endsWith(".zip")) {
+                ZipInputStream zip = new ZipInputStream(inputStream);
+                // Counts the extracted bytes of all entries together, a small archive cannot fill the spool disk
+                InputStream entries = new UncompressedLimitInputStream(zip, maxUncompressedBytes);
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    if (!entry.isDirectory()) {
+                        add(pending, entry.getName(), fileSpoolService.spool(entries, entry.getName()));
+                    }
+                }
+            } else if (archiveName.endsWith(".tar") || archiveName.endsWith(".tar.gz") || archiveName.endsWith(".tgz")) {
+                InputStream tarStream = archiveName.endsWith(".tar") ? inputStream : new GZIPInputStream(inputStream);
+                TarArchiveInputStream tar = new TarArchiveInputStream(tarStream);
+                InputStream entries = new UncompressedLimitInputStream(tar, maxUncompressedBytes);
+                ArchiveEntry entry;
+                while ((entry = tar.getNextEntry()) != null) {
+                    if (entry instanceof TarArchiveEntry tarEntry && tarEntry.isFile()) {
+                        add(pending, entry.getName(), fileSpoolService.spool(entries, entry.getName()));
+                    }
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported archive type, expected .zip, .tar, .tar.gz or .tgz");
+            }
+        } catch (UncompressedLimitExceededException e) {
+            // The partly written entry is already discarded, submit discards the ones before it
+            throw new IllegalArgumentException("Bulk upload exceeds the limit of " + maxUncompressedBytes + " uncompressed bytes");
+        }
+    }
+
+    private void add(List<BulkEntry> pending, String name, SpooledFile spooledFile) {
+        if (pending.size() >= maxEntries) {
+            fileSpoolService.discard(spooledFile.getPath());
+            throw new IllegalArgumentException("Bulk upload exceeds the limit of " + maxEntries + " entries");
+        }
+        pending.add(new BulkEntry(name, spooledFile));
+    }
+
+    private Map<String, Map<String, String>> parseManifest(String manifestJson) {
+        if (manifestJson == null || manifestJson.isBlank()) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(manifestJson, new TypeReference<Map<String, Map<String, String>>>() {
+            });
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid manifest, expected an object of entry name to metadata: " + e.getOriginalMessage());
+        }
+    }
+
+    private Map<String, String> parseDefaults(String metadataJson) {
+        if (metadataJson == null || metadataJson.isBlank()) {
+            return Map.of();
+        }
+        try {
+            return documentService.parseMetadata(metadataJson);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid metadata: " + e.getMessage());
+        }
+    }
+
+    private Map<String, String> metadataFor(String name, Map<String, Map<String, String>> manifest, Map<String, String> defaults) {
+        Map<String, String> metadata = new HashMap<>(defaults);
+        Map<String, String> entryMetadata = manifest.getOrDefault(name, manifest.get(StringUtils.getFilename(name)));
+        if (entryMetadata != null) {
+            metadata.putAll(entryMetadata);
+        }
+        return metadata;
+    }
+
+    private void discardAll(List<BulkEntry> pending) {
+        pending.forEach(entry -> fileSpoolService.discard(entry.spooledFile.getPath()));
+    }
+
+    private static Throwable rootCause(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * Fails the copy with an IOException once more than {@code limit} bytes were read, so the spool
+     * service deletes the file it was writing.
+     */
+    private static final class UncompressedLimitInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        private UncompressedLimitInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                counted(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                counted(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            counted(skipped);
+            return skipped;
+        }
+
+        // Entries are read one after another through the same wrapper, it must not close the archive stream
+        @Override
+        public void close() {
+        }
+
+        private void counted(long n) throws UncompressedLimitExceededException {
+            count += n;
+            if (count > limit) {
+                throw new UncompressedLimitExceededException();
+            }
+        }
+    }
+
+    private static final class UncompressedLimitExceededException extends IOException {
+    }
+
+    private static final class BulkEntry {
+        private final String name;
+        private final SpooledFile spooledFile;
+        private final BulkEntryResult result;
+        private boolean duplicate;
+
+        private BulkEntry(String name, SpooledFile spooledFile) {
+            this.name = name;
+            this.spooledFile = spooledFile;
+            this.result = new BulkEntryResult(name);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.docmgmt.service;
+
+import jakarta.annotation.PostConstruct;
+import org.apache.tika.config.TikaConfig;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.sax.BodyContentHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Extracts plain text with a single shared {@link AutoDetectParser}. The parser and its detector
+ * are thread safe, so they are built once and warmed with one sample of each supported type
+ * before the first upload arrives.
+ */
+@Service
+public class ContentExtractor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentExtractor.class);
+
+    private static final String WARM_UP_SAMPLES = "classpath:tika-warmup/*";
+
+    private final AutoDetectParser parser;
+    private final boolean warmUpEnabled;
+
+    public ContentExtractor(@Value("${docmgmt.extraction.warm-up:true}") boolean warmUpEnabled) {
+        this.parser = new AutoDetectParser(TikaConfig.getDefaultConfig());
+        this.warmUpEnabled = warmUpEnabled;
+    }
+
+    public String extract(Path file, String filename) throws IOException, TikaException, SAXException {
+        Metadata metadata = new Metadata();
+        metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, filename);
+        try (TikaInputStream inputStream = TikaInputStream.get(file, metadata)) {
+            return parse(inputStream, metadata);
+        }
+    }
+
+    private String parse(InputStream inputStream, Metadata metadata) throws IOException, TikaException, SAXException {
+        BodyContentHandler handler = new BodyContentHandler(-1); // unlimited length
+        parser.parse(inputStream, handler, metadata, new ParseContext());
+        return handler.toString();
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        if (!warmUpEnabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int warmed = 0;
+        try {
+            Resource[] samples = new PathMatchingResourcePatternResolver().getResources(WARM_UP_SAMPLES);
+            for (Resource sample : samples) {
+                Metadata metadata = new Metadata();
+                metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, sample.getFilename());
+                try (TikaInputStream inputStream = TikaInputStream.get(sample.getInputStream())) {
+                    parse(inputStream, metadata);
+                    warmed++;
+                } catch (Exception e) {
+                    logger.warn("Tika warm-up failed for {}: {}", sample.getFilename(), e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not load Tika warm-up samples: {}", e.getMessage());
+        }
+        logger.info("Tika parsers warmed up with {} samples in {} ms", warmed, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.docmgmt.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-compressed extracted text on local (or shared) disk, keyed by content hash. Used as the
+ * claim check store so large text stays out of RabbitMQ messages.
+ */
+@Service
+public class ContentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentStore.class);
+
+    private static final Pattern REFERENCE = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path storeDir;
+    private final Duration retention;
+
+    public ContentStore(@Value("${docmgmt.content-store.dir:${java.io.tmpdir}/docmgmt-content}") String storeDir,
+                        @Value("${docmgmt.content-store.retention:P7D}") Duration retention) throws IOException {
+        this.storeDir = Files.createDirectories(Paths.get(storeDir));
+        this.retention = retention;
+    }
+
+    public String put(String contentHash, String content) throws IOException {
+        Path target = pathFor(contentHash);
+        if (Files.exists(target)) {
+            return contentHash;
+        }
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), contentHash, ".tmp");
+        try {
+            try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8)) {
+                writer.write(content);
+            }
+            // Readers never see a partially written file
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return contentHash;
+    }
+
+    public Optional<String> get(String reference) throws IOException {
+        Path source = pathFor(reference);
+        if (!Files.exists(source)) {
+            return Optional.empty();
+        }
+        try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(source))) {
+            return Optional.of(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    public void delete(String reference) {
+        try {
+            Files.deleteIfExists(pathFor(reference));
+        } catch (IOException e) {
+            logger.warn("Could not delete stored content {}: {}", reference, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${docmgmt.content-store.cleanup-interval-ms:3600000}")
+    public void evictExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        try (Stream<Path> files = Files.walk(storeDir)) {
+            files.filter(Files::isRegularFile)
+                    .filter(file -> isOlderThan(file, cutoff))
+                    .forEach(file -> {
+                        try {
+                            Files.deleteIfExists(file);
+                        } catch (IOException e) {
+                            logger.warn("Could not delete expired content {}: {}", file, e.getMessage());
+                        }
+                    });
+        } catch (IOException e) {
+            logger.warn("Content store cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    private Path pathFor(String reference) {
+        if (reference == null || !REFERENCE.matcher(reference).matches()) {
+            throw new IllegalArgumentException("Invalid content reference: " + reference);
+        }
+        return storeDir.resolve(reference.substring(0, 2)).resolve(reference + ".txt.gz");
+    }
+
+    private static boolean isOlderThan(Path file, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.docmgmt.service;
+
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.model.DocumentContent;
+import com.example.docmgmt.repository.DocumentContentRepository;
+import com.example.docmgmt.util.HashUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class DocumentContentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentContentService.class);
+
+    private final DocumentContentRepository documentContentRepository;
+    private final TransactionTemplate newTransaction;
+
+    public DocumentContentService(DocumentContentRepository documentContentRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.documentContentRepository = documentContentRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isKnown(String contentHash) {
+        return contentHash != null && documentContentRepository.existsByContentHash(contentHash);
+    }
+
+    /**
+     * Links the document to the stored text for its content hash, storing the text first if this
+     * hash has not been seen before. Documents without a hash (e.g. CSV imports) are keyed by the
+     * hash of their text.
+     * <p>
+     * New text is committed in its own transaction, so a duplicate-key race with another thread
+     * cannot mark the caller's transaction (e.g. a batch chunk) rollback-only. The text stays
+     * stored if the caller rolls back, and is reused when the document is stored again.
+     */
+    public Document attach(Document document) {
+        assignContentHash(document);
+
+        DocumentContent body = documentContentRepository.findByContentHash(document.getContentHash())
+                .orElseGet(() -> store(document));
+        document.setBody(body);
+        return document;
+    }
+
+    /**
+     * Chunk version of {@link #attach(Document)}: looks up the hashes of all documents with one query
+     * and stores the missing texts with one batched insert. If another thread stored one of them in
+     * the meantime, the documents are attached one by one instead.
+     */
+    public void attachAll(Collection<? extends Document> documents) {
+        Map<String, Document> firstByHash = new LinkedHashMap<>();
+        for (Document document : documents) {
+            assignContentHash(document);
+            firstByHash.putIfAbsent(document.getContentHash(), document);
+        }
+
+        Map<String, DocumentContent> bodies = new HashMap<>();
+        for (DocumentContent body : documentContentRepository.findByContentHashIn(firstByHash.keySet())) {
+            bodies.put(body.getContentHash(), body);
+        }
+        List<DocumentContent> missing = new ArrayList<>();
+        for (Document document : firstByHash.values()) {
+            if (!bodies.containsKey(document.getContentHash())) {
+                if (document.getContent() == null) {
+                    throw new IllegalStateException("No stored content for hash " + document.getContentHash());
+                }
+                missing.add(new DocumentContent(document.getContentHash(), document.getContent()));
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            try {
+                newTransaction.execute(status -> documentContentRepository.saveAllAndFlush(missing))
+                        .forEach(body -> bodies.put(body.getContentHash(), body));
+            } catch (DataIntegrityViolationException e) {
+                logger.debug("Content of {} documents stored concurrently, attaching one by one", documents.size());
+                documents.forEach(this::attach);
+                return;
+            }
+        }
+        documents.forEach(document -> document.setBody(bodies.get(document.getContentHash())));
+    }
+
+    /**
+     * Keys documents without a hash (e.g. CSV imports) by the hash of their text.
+     */
+    public void assignContentHash(Document document) {
+        if (document.getContentHash() == null) {
+            if (document.getContent() == null) {
+                throw new IllegalArgumentException("Document has neither content nor a content hash: " + document.getTitle());
+            }
+            document.setContentHash(HashUtil.sha256Hex(document.getContent()));
+        }
+    }
+
+    private DocumentContent store(Document document) {
+        if (document.getContent() == null) {
+            throw new IllegalStateException("No stored content for hash " + document.getContentHash());
+        }
+        try {
+            return newTransaction.execute(status -> documentContentRepository.saveAndFlush(
+                    new DocumentContent(document.getContentHash(), document.getContent())));
+        } catch (DataIntegrityViolationException e) {
+            // Another consumer stored the same content concurrently, link to its row
+            logger.debug("Content {} stored concurrently, reusing existing row", document.getContentHash());
+            return documentContentRepository.findByContentHash(document.getContentHash())
+                    .orElseThrow(() -> e);
+        }
+    }
+}
@@ -1,92 +1,201 @@
 package com.example.docmgmt.service;
+import com.example.docmgmt.messaging.DocumentPublisher;
+import com.example.docmgmt.model.CursorPage;
 import com.example.docmgmt.model.Document;
 import com.example.docmgmt.model.DocumentDTO;
+import com.example.docmgmt.model.SliceResult;
+import com.example.docmgmt.model.SpooledFile;
 import com.example.docmgmt.repository.DocumentRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.tika.Tika;
-import org.apache.tika.metadata.Metadata;
-import org.apache.tika.parser.AutoDetectParser;
-import org.apache.tika.parser.ParseContext;
-import org.apache.tika.sax.BodyContentHandler;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.apache.tika.exception.TikaException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.xml.sax.SAXException;
 
-import java.io.*;
-import java.nio.file.Files;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 public class DocumentService {
 
+    // Only orders an index can serve: created_at through the documents listing indexes, id through the primary key
+    private static final Set<String> SORTABLE_FIELDS = Set.of("createdAt", "id");
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int APPROXIMATE_TOTAL_CAP = 10_000;
+
     private final DocumentRepository documentRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final DocumentPublisher documentPublisher;
     private final ObjectMapper objectMapper;
-    private final Tika tika = new Tika();
+    private final FileSpoolService fileSpoolService;
+    private final ContentExtractor contentExtractor;
+    private final DocumentContentService documentContentService;
 
-    public DocumentService(DocumentRepository documentRepository, RabbitTemplate rabbitTemplate, ObjectMapper objectMapper) {
+    public DocumentService(DocumentRepository documentRepository, DocumentPublisher documentPublisher, ObjectMapper objectMapper,
+                           FileSpoolService fileSpoolService, ContentExtractor contentExtractor,
+                           DocumentContentService documentContentService) {
         this.documentRepository = documentRepository;
-        this.rabbitTemplate = rabbitTemplate;
+        this.documentPublisher = documentPublisher;
         this.objectMapper = objectMapper;
+        this.fileSpoolService = fileSpoolService;
+        this.contentExtractor = contentExtractor;
+        this.documentContentService = documentContentService;
     }
 
-    @Async
-    public void processDocumentAsync(byte[] fileBytes, String filename, String metadataJson) {
+    /**
+     * Publishes the upload without extraction when its content hash is already stored, the
+     * listener then links the new metadata to the existing text.
+     *
+     * @return true if the upload was a duplicate and has been handled
+     */
+    public boolean linkDuplicate(SpooledFile spooledFile, String filename, String metadataJson) {
+        if (!documentContentService.isKnown(spooledFile.getContentHash())) {
+            return false;
+        }
         try {
-            Map<String, String> metadata = objectMapper.readValue(metadataJson, Map.class);
-
-            // Create temp file with correct extension
-            File tempFile = File.createTempFile("upload-", "-" + filename);
-            try (FileOutputStream fos = new FileOutputStream(tempFile)) {
-                fos.write(fileBytes);
-            }
-
-            // Use AutoDetectParser for better parsing
-            AutoDetectParser parser = new AutoDetectParser();
-            BodyContentHandler handler = new BodyContentHandler(-1); // unlimited length
-            Metadata tikaMetadata = new Metadata();
+            Document document = buildDocument(filename, parseMetadata(metadataJson), spooledFile.getContentHash());
+            documentPublisher.publish(document);
+            return true;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to process document", e);
+        } finally {
+            fileSpoolService.discard(spooledFile.getPath());
+        }
+    }
 
-            try (FileInputStream inputStream = new FileInputStream(tempFile)) {
-                parser.parse(inputStream, handler, tikaMetadata, new ParseContext());
-            }
+    @Async("extractionExecutor")
+    public void processDocumentAsync(SpooledFile spooledFile, String filename, String metadataJson) {
+        try {
+            Document document = extractDocument(spooledFile, filename, parseMetadata(metadataJson));
+            documentPublisher.publish(document);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to process document", e);
+        } finally {
+            fileSpoolService.discard(spooledFile.getPath());
+        }
+    }
 
-            // Clean up
-            tempFile.delete();
+    public Document extractDocument(SpooledFile spooledFile, String filename, Map<String, String> metadata)
+            throws IOException, TikaException, SAXException {
+        Document document = buildDocument(filename, metadata, spooledFile.getContentHash());
 
-            String content = handler.toString();
+        // Parse straight from the spool file, Tika streams it without loading it into memory
+        String content = contentExtractor.extract(spooledFile.getPath(), filename);
+        document.setContent(content);
+        return document;
+    }
 
-            Document document = new Document();
-            document.setTitle(filename);
-            document.setContent(content);
-            document.setAuthor(metadata.get("author"));
-            document.setType(metadata.get("type"));
-            document.setTsvector(content);
-            document.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+    public Map<String, String> parseMetadata(String metadataJson) throws IOException {
+        return objectMapper.readValue(metadataJson, Map.class);
+    }
 
-            rabbitTemplate.convertAndSend("documentQueue", document);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to process document", e);
-        }
+    public Document buildDocument(String filename, Map<String, String> metadata, String contentHash) {
+        Document document = new Document();
+        document.setTitle(filename);
+        document.setContentHash(contentHash);
+        document.setAuthor(metadata.get("author"));
+        document.setType(metadata.get("type"));
+        document.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        return document;
     }
 
     public Page<DocumentDTO> getDocuments(String author, String type, int page, int size, String sort) {
+        checkPage(page, size);
         Sort sortObj = parseSort(sort);
         PageRequest pageRequest = PageRequest.of(page, size, sortObj);
-        return documentRepository.findByAuthorAndType(author, type, pageRequest)
-                .map(this::toDTO);
+        return documentRepository.findSummaries(author, type, pageRequest);
+    }
+
+    /**
+     * Offset listing without the count query. The total is only estimated on request, by counting
+     * matching rows up to a fixed cap.
+     */
+    public SliceResult<DocumentDTO> getDocumentSlice(String author, String type, int page, int size, String sort, boolean withTotal) {
+        checkPage(page, size);
+        PageRequest pageRequest = PageRequest.of(page, size, parseSort(sort));
+        Slice<DocumentDTO> slice = documentRepository.findSummarySlice(author, type, pageRequest);
+
+        Long approximateTotal = null;
+        Boolean totalExact = null;
+        if (withTotal) {
+            approximateTotal = documentRepository.countUpTo(author, type, APPROXIMATE_TOTAL_CAP);
+            totalExact = approximateTotal < APPROXIMATE_TOTAL_CAP;
+        }
+        return new SliceResult<>(slice.getContent(), page, size, slice.hasNext(), approximateTotal, totalExact);
+    }
+
+    /**
+     * Newest-first keyset page. The cursor encodes (createdAt, id) of the last row returned, so
+     * every page is an index seek no matter how deep it is.
+     */
+    public CursorPage<DocumentDTO> getDocumentsAfter(String author, String type, String cursor, int size) {
+        checkPage(0, size);
+        // One extra row tells whether another page follows
+        List<DocumentDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = documentRepository.findSummariesAfter(author, type, null, null, size + 1);
+        } else {
+            CursorPosition position = decodeCursor(cursor);
+            rows = documentRepository.findSummariesAfter(author, type, position.createdAt(), position.id(), size + 1);
+        }
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<DocumentDTO> items = rows.subList(0, size);
+        DocumentDTO last = items.get(size - 1);
+        return new CursorPage<>(List.copyOf(items), encodeCursor(new CursorPosition(last.getCreatedAt(), last.getId())));
     }
 
     private Sort parseSort(String sort) {
         String[] parts = sort.split(",");
-        return Sort.by(Sort.Direction.fromString(parts[1]), parts[0]);
+        if (parts.length != 2 || !SORTABLE_FIELDS.contains(parts[0])) {
+            throw new IllegalArgumentException("Unsupported sort '" + sort + "', expected one of " + SORTABLE_FIELDS + " followed by ,asc or ,desc");
+        }
+        Sort.Direction direction = Sort.Direction.fromString(parts[1]);
+        if ("id".equals(parts[0])) {
+            return Sort.by(direction, "id");
+        }
+        // id breaks ties so rows never move between pages. It follows the primary direction so the
+        // (..., created_at, id) indexes can be read forwards or backwards without a sort.
+        return Sort.by(direction, parts[0]).and(Sort.by(direction, "id"));
+    }
+
+    private static void checkPage(int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private static String encodeCursor(CursorPosition position) {
+        String value = position.createdAt() + "|" + position.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CursorPosition decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new CursorPosition(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
     }
 
-    private DocumentDTO toDTO(Document document) {
-        return new DocumentDTO(document.getId(), document.getTitle(), document.getAuthor(), document.getType());
+    private record CursorPosition(LocalDateTime createdAt, long id) {
     }
 }
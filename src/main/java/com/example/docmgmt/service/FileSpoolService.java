@@ -0,0 +1,69 @@
+package com.example.docmgmt.service;
+
+import com.example.docmgmt.model.SpooledFile;
+import com.example.docmgmt.util.HashUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+
+/**
+ * Streams uploaded content into a spool directory so that the extraction stage
+ * can work from a file reference instead of a heap-resident byte array. The
+ * content is hashed on the way through so duplicates can be recognised without
+ * reading the file again.
+ */
+@Service
+public class FileSpoolService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileSpoolService.class);
+
+    private final Path spoolDir;
+
+    public FileSpoolService(@Value("${docmgmt.upload.spool-dir:${java.io.tmpdir}/docmgmt-spool}") String spoolDir) throws IOException {
+        this.spoolDir = Files.createDirectories(Paths.get(spoolDir));
+    }
+
+    public SpooledFile spool(MultipartFile file) throws IOException {
+        try (InputStream inputStream = file.getInputStream()) {
+            return spool(inputStream, file.getOriginalFilename());
+        }
+    }
+
+    /**
+     * Copies the stream into the spool directory. The stream is left open so callers can spool
+     * individual entries of an archive stream.
+     */
+    public SpooledFile spool(InputStream inputStream, String filename) throws IOException {
+        // Only the extension is kept so client supplied names never reach the file system
+        String extension = StringUtils.getFilenameExtension(filename);
+        Path target = Files.createTempFile(spoolDir, "upload-", extension != null ? "." + extension : ".bin");
+        try {
+            MessageDigest digest = HashUtil.sha256();
+            long size = Files.copy(new DigestInputStream(inputStream, digest), target, StandardCopyOption.REPLACE_EXISTING);
+            return new SpooledFile(target, HashUtil.toHex(digest.digest()), size);
+        } catch (IOException e) {
+            discard(target);
+            throw e;
+        }
+    }
+
+    public void discard(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete spooled file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -1,36 +1,82 @@
 package com.example.docmgmt.service;
 
+import com.example.docmgmt.cache.SearchCacheVersion;
+import com.example.docmgmt.config.CacheConfig;
 import com.example.docmgmt.model.Document;
-import com.example.docmgmt.model.ElasticDocument;
+import com.example.docmgmt.model.SearchResultDTO;
+import com.example.docmgmt.model.SliceResult;
+import com.example.docmgmt.repository.DocumentRepository;
 import com.example.docmgmt.repository.ElasticDocumentRepository;
-import org.springframework.cache.annotation.Cacheable;
+import com.example.docmgmt.util.SearchQueryUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.stereotype.Service;
 
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class QnAService {
 
+    private static final Logger logger = LoggerFactory.getLogger(QnAService.class);
+
+    private static final int MAX_PAGE_SIZE = 50;
+    // Hits beyond this depth are never served, deep from+size paging costs every shard the whole window
+    private static final int MAX_RESULT_WINDOW = 1000;
+
     private final ElasticDocumentRepository elasticRepository;
+    private final DocumentRepository documentRepository;
+    private final Cache qaResults;
+    private final SearchCacheVersion searchCacheVersion;
 
-    public QnAService(ElasticDocumentRepository elasticRepository) {
+    public QnAService(ElasticDocumentRepository elasticRepository, DocumentRepository documentRepository,
+                      CacheManager cacheManager, SearchCacheVersion searchCacheVersion) {
         this.elasticRepository = elasticRepository;
+        this.documentRepository = documentRepository;
+        this.qaResults = cacheManager.getCache(CacheConfig.QA_RESULTS);
+        this.searchCacheVersion = searchCacheVersion;
+    }
+
+    public SliceResult<SearchResultDTO> searchDocuments(String query, int page, int size) {
+        String normalized = SearchQueryUtil.normalize(query);
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be 0 or more and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        if ((long) (page + 1) * size > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Only the first " + MAX_RESULT_WINDOW + " hits can be paged through, refine the query");
+        }
+        // The version moves on when new documents are indexed, so cached pages never hide new uploads for long.
+        // Spellings differing only in case and spacing share one key, and concurrent misses wait for a single search.
+        String key = searchCacheVersion.current() + ":" + normalized + ":" + page + ":" + size;
+        try {
+            return qaResults.get(key, () -> elasticRepository.searchRanked(normalized, page, size));
+        } catch (RuntimeException e) {
+            // Elasticsearch degraded: answer from the indexed full-text column in the database. Only ranked
+            // results are cached, so they are served again as soon as Elasticsearch recovers.
+            logger.warn("Elasticsearch search failed, falling back to database search: {}",
+                    NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            List<Document> rows = documentRepository.searchFullText(normalized, page * size, size + 1);
+            List<SearchResultDTO> results = rows.stream()
+                    .limit(size)
+                    .map(this::toResult)
+                    .collect(Collectors.toList());
+            return new SliceResult<>(results, page, size, rows.size() > size, null, null);
+        }
     }
 
-    @Cacheable(value = "qaResults", key = "#query")
-    public List<Document> searchDocuments(String query) {
-        List<ElasticDocument> elasticDocs = elasticRepository.findByContentContainingIgnoreCase(query);
-        return elasticDocs.stream().map(this::toDocument).collect(Collectors.toList());
+    public Optional<String> getContent(Long documentId) {
+        return documentRepository.findContentById(documentId);
     }
 
-    private Document toDocument(ElasticDocument edoc) {
-        Document doc = new Document();
-        doc.setTitle(edoc.getTitle());
-        doc.setAuthor(edoc.getAuthor());
-        doc.setContent(edoc.getContent());
-        doc.setType(edoc.getType());
-        doc.setTsvector(edoc.getContent()); // optional
-        return doc;
+    // The database search returns a snippet around the match in place of the content
+    private SearchResultDTO toResult(Document document) {
+        return new SearchResultDTO(String.valueOf(document.getId()), document.getTitle(), document.getAuthor(),
+                document.getType(), document.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant(), null,
+                List.of(document.getContent() != null ? document.getContent() : ""));
     }
 }
@@ -0,0 +1,116 @@
+package com.example.docmgmt.service;
+
+import com.example.docmgmt.batch.PartitionTotals;
+import com.example.docmgmt.batch.ReindexBatchConfig;
+import com.example.docmgmt.model.ReindexStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Starts {@code reindexDocumentsJob} in the background. A reindex that failed or was stopped is
+ * resumed, so the partitions already copied are not copied again; otherwise a new run into a fresh
+ * index is started. Only one reindex runs at a time.
+ */
+@Service
+public class ReindexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReindexService.class);
+
+    static final String REQUESTED_AT = "reindex.requestedAt";
+
+    private final Job reindexDocumentsJob;
+    private final JobExplorer jobExplorer;
+    private final JobLauncher jobLauncher;
+
+    public ReindexService(@Qualifier(ReindexBatchConfig.JOB_NAME) Job reindexDocumentsJob,
+                          JobRepository jobRepository, JobExplorer jobExplorer) throws Exception {
+        this.reindexDocumentsJob = reindexDocumentsJob;
+        this.jobExplorer = jobExplorer;
+
+        TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+        launcher.setJobRepository(jobRepository);
+        launcher.setTaskExecutor(new SimpleAsyncTaskExecutor("reindex-job-"));
+        launcher.afterPropertiesSet();
+        this.jobLauncher = launcher;
+    }
+
+    public synchronized ReindexStatus startReindex() {
+        if (!jobExplorer.findRunningJobExecutions(ReindexBatchConfig.JOB_NAME).isEmpty()) {
+            throw new IllegalArgumentException("A reindex is already running");
+        }
+        JobParameters parameters = resumableParameters()
+                .orElseGet(() -> new JobParametersBuilder()
+                        .addLong(REQUESTED_AT, System.currentTimeMillis())
+                        .toJobParameters());
+        try {
+            JobExecution execution = jobLauncher.run(reindexDocumentsJob, parameters);
+            logger.info("Started reindex as execution {}", execution.getId());
+            return toStatus(execution);
+        } catch (JobExecutionAlreadyRunningException e) {
+            throw new IllegalArgumentException("A reindex is already running");
+        } catch (JobInstanceAlreadyCompleteException | JobRestartException | JobParametersInvalidException e) {
+            throw new IllegalStateException("Could not start reindex", e);
+        }
+    }
+
+    public Optional<ReindexStatus> getReindex(long executionId) {
+        JobExecution execution = jobExplorer.getJobExecution(executionId);
+        if (execution == null || !ReindexBatchConfig.JOB_NAME.equals(execution.getJobInstance().getJobName())) {
+            return Optional.empty();
+        }
+        return Optional.of(toStatus(execution));
+    }
+
+    // The parameters of the last run when it did not complete, running them again resumes it
+    private Optional<JobParameters> resumableParameters() {
+        JobInstance last = jobExplorer.getLastJobInstance(ReindexBatchConfig.JOB_NAME);
+        if (last == null) {
+            return Optional.empty();
+        }
+        JobExecution lastExecution = jobExplorer.getLastJobExecution(last);
+        if (lastExecution == null) {
+            return Optional.empty();
+        }
+        BatchStatus status = lastExecution.getStatus();
+        if (status == BatchStatus.FAILED || status == BatchStatus.STOPPED) {
+            logger.info("Resuming reindex instance {}", last.getInstanceId());
+            return Optional.of(lastExecution.getJobParameters());
+        }
+        return Optional.empty();
+    }
+
+    private static ReindexStatus toStatus(JobExecution execution) {
+        PartitionTotals totals = PartitionTotals.of(execution, ReindexBatchConfig.WORKER_STEP_NAME);
+        String targetIndex = execution.getExecutionContext().containsKey(ReindexBatchConfig.TARGET_INDEX)
+                ? execution.getExecutionContext().getString(ReindexBatchConfig.TARGET_INDEX)
+                : null;
+        return new ReindexStatus(
+                execution.getId(),
+                targetIndex,
+                execution.getStatus().name(),
+                execution.getExitStatus().getExitCode(),
+                totals.readCount(),
+                totals.writeCount(),
+                execution.getStartTime(),
+                execution.getEndTime());
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.docmgmt.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.model.ElasticDocument;
+import com.example.docmgmt.repository.DocumentRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Manages the versioned search indices behind the {@code documents} alias. Searches and the queue
+ * listener only ever use the alias; a rebuild fills a new {@code documents_v<timestamp>} index and
+ * then moves the alias to it in one atomic update, so readers never see a partial index.
+ */
+@Service
+public class SearchIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexService.class);
+
+    private static final String VERSION_PREFIX = ElasticDocument.INDEX_ALIAS + "_v";
+    private static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ElasticsearchClient elasticsearchClient;
+    private final DocumentRepository documentRepository;
+    private final int replicas;
+
+    public SearchIndexService(ElasticsearchOperations elasticsearchOperations, ElasticsearchClient elasticsearchClient,
+                              DocumentRepository documentRepository,
+                              @Value("${docmgmt.search.index.replicas:1}") int replicas) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.elasticsearchClient = elasticsearchClient;
+        this.documentRepository = documentRepository;
+        this.replicas = replicas;
+    }
+
+    // Runs before the outbox relay starts, so its first write cannot auto-create a concrete "documents" index
+    @PostConstruct
+    public void ensureIndex() {
+        try {
+            if (aliasExists() || elasticsearchClient.indices().exists(r -> r.index(ElasticDocument.INDEX_ALIAS)).value()) {
+                // An index created before the alias existed keeps working until the first reindex replaces it
+                return;
+            }
+            switchAlias(createIndex());
+        } catch (Exception e) {
+            logger.warn("Could not set up the search index, search falls back to the database until it exists: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Creates an empty versioned index with the current mapping of {@link ElasticDocument}.
+     */
+    public String createIndex() {
+        String index = VERSION_PREFIX + LocalDateTime.now(ZoneOffset.UTC).format(VERSION_FORMAT);
+        IndexOperations indexOps = elasticsearchOperations.indexOps(IndexCoordinates.of(index));
+        indexOps.create();
+        indexOps.putMapping(elasticsearchOperations.indexOps(ElasticDocument.class).createMapping());
+        logger.info("Created search index {}", index);
+        return index;
+    }
+
+    // No refreshes and no replicas while the index is filled, both are restored before it goes live
+    public void startBulkLoad(String index) throws IOException {
+        elasticsearchClient.indices().putSettings(r -> r
+                .index(index)
+                .settings(s -> s.refreshInterval(t -> t.time("-1")).numberOfReplicas("0")));
+    }
+
+    public void finishBulkLoad(String index) throws IOException {
+        elasticsearchClient.indices().putSettings(r -> r
+                .index(index)
+                .settings(s -> s.refreshInterval(t -> t.time("1s")).numberOfReplicas(String.valueOf(replicas))));
+        elasticsearchOperations.indexOps(IndexCoordinates.of(index)).refresh();
+    }
+
+    /**
+     * Points the alias at {@code index} alone, in a single alias update. An index that was created
+     * under the alias name itself before versioning is deleted in the same update.
+     */
+    public void switchAlias(String index) throws IOException {
+        List<Action> actions = new ArrayList<>();
+        actions.add(Action.of(a -> a.add(add -> add.index(index).alias(ElasticDocument.INDEX_ALIAS))));
+        if (aliasExists()) {
+            for (String current : currentIndices()) {
+                if (!current.equals(index)) {
+                    actions.add(Action.of(a -> a.remove(remove -> remove.index(current).alias(ElasticDocument.INDEX_ALIAS))));
+                }
+            }
+        } else if (elasticsearchClient.indices().exists(r -> r.index(ElasticDocument.INDEX_ALIAS)).value()) {
+            actions.add(Action.of(a -> a.removeIndex(remove -> remove.index(ElasticDocument.INDEX_ALIAS))));
+        }
+        elasticsearchClient.indices().updateAliases(r -> r.actions(actions));
+        logger.info("Search alias {} now points at {}", ElasticDocument.INDEX_ALIAS, index);
+    }
+
+    /**
+     * Deletes versioned indices other than {@code current}, keeping the most recent one before it
+     * so the alias can be moved back.
+     */
+    public void deleteOldIndices(String current) throws IOException {
+        List<String> old = elasticsearchClient.indices().get(r -> r.index(VERSION_PREFIX + "*")).result().keySet().stream()
+                .filter(index -> !index.equals(current))
+                .sorted(Comparator.reverseOrder())
+                .skip(1)
+                .toList();
+        if (!old.isEmpty()) {
+            elasticsearchClient.indices().delete(r -> r.index(old));
+            logger.info("Deleted old search indices {}", old);
+        }
+    }
+
+    /**
+     * Indexes every document with an id above {@code maxId} or stored at or after {@code since} into
+     * {@code index}, page by page.
+     */
+    public long indexStoredSince(String index, long maxId, LocalDateTime since, int pageSize) {
+        long indexed = 0;
+        long afterId = 0;
+        List<Document> page = documentRepository.findPageStoredSince(afterId, maxId, since, PageRequest.of(0, pageSize));
+        while (!page.isEmpty()) {
+            elasticsearchOperations.save(page.stream().map(SearchIndexService::toElasticDocument).toList(),
+                    IndexCoordinates.of(index));
+            indexed += page.size();
+            afterId = page.get(page.size() - 1).getId();
+            page = documentRepository.findPageStoredSince(afterId, maxId, since, PageRequest.of(0, pageSize));
+        }
+        return indexed;
+    }
+
+    public static ElasticDocument toElasticDocument(Document document) {
+        ElasticDocument elasticDoc = new ElasticDocument();
+        // Derived from the row, so indexing it again is an overwrite of the same ES document
+        elasticDoc.setId(String.valueOf(document.getId()));
+        elasticDoc.setTitle(document.getTitle());
+        elasticDoc.setAuthor(document.getAuthor());
+        elasticDoc.setContent(document.getBody() != null ? document.getBody().getContent() : null);
+        elasticDoc.setType(document.getType());
+        elasticDoc.setCreatedAt(document.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant());
+        return elasticDoc;
+    }
+
+    private boolean aliasExists() throws IOException {
+        return elasticsearchClient.indices().existsAlias(r -> r.name(ElasticDocument.INDEX_ALIAS)).value();
+    }
+
+    private Set<String> currentIndices() throws IOException {
+        return elasticsearchClient.indices().getAlias(r -> r.name(ElasticDocument.INDEX_ALIAS)).result().keySet();
+    }
+}
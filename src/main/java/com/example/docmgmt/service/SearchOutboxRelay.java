@@ -0,0 +1,229 @@
+package com.example.docmgmt.service;
+
+import com.example.docmgmt.cache.SearchCacheVersion;
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.model.ElasticDocument;
+import com.example.docmgmt.model.SearchOutboxEvent;
+import com.example.docmgmt.repository.DocumentRepository;
+import com.example.docmgmt.repository.SearchOutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the search outbox into Elasticsearch. Events are taken oldest first in batches, each
+ * batch is indexed with one bulk request from the current database rows, and the events are
+ * deleted once their documents are indexed. While Elasticsearch is down or overloaded events simply
+ * stay in the table, so storing documents never waits for it. A bulk request rejected as a whole is
+ * split in halves until the documents to blame are found; only those count an attempt. Indexing is
+ * an overwrite by row id, so an event relayed twice does no harm.
+ * <p>
+ * Every node runs the relay. A batch is claimed with {@code FOR UPDATE SKIP LOCKED} and held until
+ * its events are deleted, so concurrent relays work on different events instead of sending the
+ * same bulk request.
+ */
+@Service
+public class SearchOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchOutboxRelay.class);
+
+    private final SearchOutboxRepository searchOutboxRepository;
+    private final DocumentRepository documentRepository;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final SearchCacheVersion searchCacheVersion;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final AtomicLong checkpoint = new AtomicLong();
+    private final Timer delay;
+
+    public SearchOutboxRelay(SearchOutboxRepository searchOutboxRepository, DocumentRepository documentRepository,
+                             ElasticsearchOperations elasticsearchOperations, SearchCacheVersion searchCacheVersion,
+                             MeterRegistry meterRegistry, PlatformTransactionManager transactionManager,
+                             @Value("${docmgmt.search.outbox.batch-size:500}") int batchSize,
+                             @Value("${docmgmt.search.outbox.max-attempts:5}") int maxAttempts) {
+        this.searchOutboxRepository = searchOutboxRepository;
+        this.documentRepository = documentRepository;
+        // Bulk requests return once the documents are searchable, so the cache version bumped after
+        // a batch never lets a page from before the refresh be cached as current
+        this.elasticsearchOperations = elasticsearchOperations.withRefreshPolicy(RefreshPolicy.WAIT_UNTIL);
+        this.searchCacheVersion = searchCacheVersion;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+
+        Gauge.builder("docmgmt.search.outbox.pending", pending, AtomicLong::get)
+                .description("Stored documents not yet written to the search index")
+                .register(meterRegistry);
+        Gauge.builder("docmgmt.search.outbox.lag.seconds", lagSeconds, AtomicLong::get)
+                .description("Age of the oldest document not yet written to the search index")
+                .register(meterRegistry);
+        Gauge.builder("docmgmt.search.outbox.checkpoint", checkpoint, AtomicLong::get)
+                .description("Id of the last outbox event written to the search index")
+                .register(meterRegistry);
+        this.delay = Timer.builder("docmgmt.search.outbox.delay")
+                .description("Time from a document being stored to it being searchable")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${docmgmt.search.outbox.poll-ms:1000}")
+    public void relay() {
+        try {
+            // Keep going while batches come back full, a backlog is drained without waiting for the next poll
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (Exception e) {
+            logger.warn("Search outbox relay stopped, retrying on the next poll: {}", e.getMessage());
+        }
+        refreshLag();
+    }
+
+    /**
+     * Indexes the oldest pending events not claimed by another node and returns how many of them
+     * were written.
+     */
+    int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> relayClaimedBatch());
+        return relayed != null ? relayed : 0;
+    }
+
+    // Runs in the claiming transaction, the row locks are released once the events are deleted or updated
+    private int relayClaimedBatch() {
+        List<SearchOutboxEvent> events = searchOutboxRepository.claimPending(maxAttempts, PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        // A document with several events in the batch is indexed once, from its current row
+        Set<Long> documentIds = events.stream()
+                .map(SearchOutboxEvent::getDocumentId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, Document> documents = documentRepository.findWithBodyByIdIn(documentIds).stream()
+                .collect(Collectors.toMap(Document::getId, Function.identity()));
+        // Document id -> reason it could not be indexed
+        Map<String, String> rejected = new HashMap<>();
+        List<ElasticDocument> elasticDocs = new ArrayList<>(documents.size());
+        for (Long documentId : documentIds) {
+            Document document = documents.get(documentId);
+            if (document == null) {
+                continue;
+            }
+            try {
+                elasticDocs.add(SearchIndexService.toElasticDocument(document));
+            } catch (RuntimeException e) {
+                rejected.put(String.valueOf(documentId), "Could not map document: " + e);
+            }
+        }
+        if (!elasticDocs.isEmpty()) {
+            // Throws when Elasticsearch is unavailable, the whole batch then stays pending for the next poll
+            rejected.putAll(index(elasticDocs));
+        }
+        if (!rejected.isEmpty()) {
+            logger.warn("Search index rejected {} of {} documents", rejected.size(), documentIds.size());
+        }
+
+        List<Long> done = new ArrayList<>(events.size());
+        Map<String, List<Long>> failed = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (SearchOutboxEvent event : events) {
+            String error = rejected.get(String.valueOf(event.getDocumentId()));
+            if (error != null) {
+                failed.computeIfAbsent(error, e -> new ArrayList<>()).add(event.getId());
+            } else {
+                done.add(event.getId());
+                delay.record(Duration.between(event.getCreatedAt(), now));
+            }
+        }
+        if (!done.isEmpty()) {
+            searchOutboxRepository.deleteAllByIdInBatch(done);
+            checkpoint.set(done.get(done.size() - 1));
+            // Cached search pages from before this batch may be missing the new documents
+            searchCacheVersion.bump();
+        }
+        failed.forEach((error, ids) ->
+                searchOutboxRepository.recordFailure(ids, error.length() > 1000 ? error.substring(0, 1000) : error));
+        return done.size();
+    }
+
+    /**
+     * Writes the documents with one bulk request and returns the ids of those that were not written,
+     * with the reason. A request refused as a whole (e.g. one too large, or a document that cannot
+     * be serialized) is retried in halves, so the documents to blame end up rejected on their own.
+     */
+    private Map<String, String> index(List<ElasticDocument> elasticDocs) {
+        try {
+            elasticsearchOperations.save(elasticDocs, IndexCoordinates.of(ElasticDocument.INDEX_ALIAS));
+            return Map.of();
+        } catch (BulkFailureException e) {
+            Map<String, String> rejected = new HashMap<>();
+            e.getFailedDocuments().forEach((id, details) -> rejected.put(id, String.valueOf(details.errorMessage())));
+            return rejected;
+        } catch (RuntimeException e) {
+            if (isUnavailable(e)) {
+                throw e;
+            }
+            if (elasticDocs.size() == 1) {
+                return Map.of(elasticDocs.get(0).getId(), String.valueOf(e.getMessage()));
+            }
+            int half = elasticDocs.size() / 2;
+            Map<String, String> rejected = new HashMap<>(index(elasticDocs.subList(0, half)));
+            rejected.putAll(index(elasticDocs.subList(half, elasticDocs.size())));
+            return rejected;
+        }
+    }
+
+    // No document is to blame when the cluster cannot be reached or asks to back off
+    private static boolean isUnavailable(RuntimeException e) {
+        if (e instanceof DataAccessResourceFailureException || e instanceof TransientDataAccessException) {
+            return true;
+        }
+        if (e instanceof UncategorizedElasticsearchException elasticException && elasticException.getStatusCode() != null) {
+            int status = elasticException.getStatusCode();
+            return status == 429 || status >= 500;
+        }
+        return false;
+    }
+
+    private void refreshLag() {
+        try {
+            pending.set(searchOutboxRepository.countByAttemptsLessThan(maxAttempts));
+            LocalDateTime oldest = searchOutboxRepository.findOldestPending(maxAttempts);
+            lagSeconds.set(oldest != null ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).toSeconds()) : 0);
+        } catch (Exception e) {
+            logger.debug("Could not read search outbox backlog: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.docmgmt.service;
+
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.model.SearchOutboxEvent;
+import com.example.docmgmt.repository.DocumentRepository;
+import com.example.docmgmt.repository.SearchOutboxRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stores documents together with their search outbox events. Either both are committed or
+ * neither, so every stored document is eventually indexed by {@link SearchOutboxRelay} and a
+ * failed save leaves nothing behind to index.
+ */
+@Service
+public class SearchOutboxService {
+
+    private final DocumentRepository documentRepository;
+    private final SearchOutboxRepository searchOutboxRepository;
+
+    public SearchOutboxService(DocumentRepository documentRepository, SearchOutboxRepository searchOutboxRepository) {
+        this.documentRepository = documentRepository;
+        this.searchOutboxRepository = searchOutboxRepository;
+    }
+
+    @Transactional
+    public List<Document> saveAll(List<Document> documents) {
+        List<Document> saved = documentRepository.saveAll(documents);
+        enqueue(saved);
+        return saved;
+    }
+
+    /**
+     * Adds an event per document to the current transaction. The documents must already have ids.
+     */
+    public void enqueue(Collection<? extends Document> documents) {
+        searchOutboxRepository.saveAll(documents.stream()
+                .map(document -> new SearchOutboxEvent(document.getId()))
+                .toList());
+    }
+}
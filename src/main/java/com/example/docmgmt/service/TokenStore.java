@@ -0,0 +1,173 @@
+package com.example.docmgmt.service;
+
+import com.example.docmgmt.util.HashUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-side token state in Redis: refresh tokens (stored by hash, each usable once) and the ids
+ * of access tokens revoked before their expiry. Revocation entries expire together with the token
+ * they deny, so the list only ever holds tokens that would otherwise still be accepted.
+ * <p>
+ * Every request checks revocation, so that check never goes to Redis: each node mirrors the revoked
+ * ids in memory. A revocation is published to the other nodes as it is written, and the mirror is
+ * rebuilt from the stored entries at startup and every {@code jwt.revocation.resync-ms}, which also
+ * repairs notifications missed while a node was disconnected.
+ */
+@Service
+public class TokenStore implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenStore.class);
+
+    static final String REFRESH_PREFIX = "docmgmt:auth:refresh:";
+    static final String REVOKED_PREFIX = "docmgmt:auth:revoked:";
+    static final String REVOCATION_CHANNEL = "docmgmt:auth:revocations";
+
+    private static final int SCAN_BATCH_SIZE = 500;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Duration refreshTtl;
+    private final SecureRandom random = new SecureRandom();
+    // Revoked token id -> epoch millis at which the token expires anyway
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    public TokenStore(RedisTemplate<String, Object> redisTemplate,
+                      RedisMessageListenerContainer listenerContainer,
+                      @Value("${jwt.refresh.ttl:P14D}") Duration refreshTtl) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.refreshTtl = refreshTtl;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(REVOCATION_CHANNEL));
+        resyncRevocations();
+    }
+
+    public String issueRefreshToken(String username) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        redisTemplate.opsForValue().set(refreshKey(refreshToken), username, refreshTtl);
+        return refreshToken;
+    }
+
+    /**
+     * Redeems a refresh token and returns the user it was issued to. The token is deleted in the
+     * same step, so a second use of the same token (e.g. a replayed copy) finds nothing.
+     */
+    public Optional<String> consumeRefreshToken(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return Optional.empty();
+        }
+        Object username = redisTemplate.opsForValue().getAndDelete(refreshKey(refreshToken));
+        return Optional.ofNullable(username).map(String::valueOf);
+    }
+
+    public void revokeRefreshToken(String refreshToken) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            redisTemplate.delete(refreshKey(refreshToken));
+        }
+    }
+
+    public void revokeAccessToken(String tokenId, Date expiresAt) {
+        long expiresAtMs = expiresAt.getTime();
+        long remainingMs = expiresAtMs - System.currentTimeMillis();
+        if (remainingMs > 0) {
+            revoked.put(tokenId, expiresAtMs);
+            redisTemplate.opsForValue().set(REVOKED_PREFIX + tokenId, expiresAtMs, Duration.ofMillis(remainingMs));
+            redisTemplate.convertAndSend(REVOCATION_CHANNEL, tokenId + ":" + expiresAtMs);
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        Long expiresAtMs = revoked.get(tokenId);
+        return expiresAtMs != null && expiresAtMs > System.currentTimeMillis();
+    }
+
+    /**
+     * Receives revocations made on other nodes, published as {@code <tokenId>:<expiresAtMillis>}.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        String payload = String.valueOf(body);
+        int separator = payload.lastIndexOf(':');
+        if (separator <= 0) {
+            logger.warn("Ignoring malformed revocation message: {}", payload);
+            return;
+        }
+        try {
+            revoked.put(payload.substring(0, separator), Long.parseLong(payload.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed revocation message: {}", payload);
+        }
+    }
+
+    /**
+     * Rebuilds the local mirror from the revocation entries in Redis and drops expired ones. When
+     * Redis cannot be reached the current mirror is kept as is.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.resync-ms:60000}",
+            initialDelayString = "${jwt.revocation.resync-ms:60000}")
+    public void resyncRevocations() {
+        long now = System.currentTimeMillis();
+        try {
+            List<String> keys = new ArrayList<>();
+            ScanOptions options = ScanOptions.scanOptions().match(REVOKED_PREFIX + "*").count(SCAN_BATCH_SIZE).build();
+            try (Cursor<String> cursor = redisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    keys.add(cursor.next());
+                }
+            }
+            if (!keys.isEmpty()) {
+                List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+                for (int i = 0; i < keys.size(); i++) {
+                    Object value = values == null ? null : values.get(i);
+                    String tokenId = keys.get(i).substring(REVOKED_PREFIX.length());
+                    if (value instanceof Number expiresAtMs) {
+                        revoked.put(tokenId, expiresAtMs.longValue());
+                    } else if (value != null) {
+                        // Entries written before the expiry was stored as the value
+                        Long ttlMs = redisTemplate.getExpire(keys.get(i), TimeUnit.MILLISECONDS);
+                        if (ttlMs != null && ttlMs > 0) {
+                            revoked.put(tokenId, now + ttlMs);
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // Tokens are still signature and expiry checked, the mirror catches up on the next run
+            logger.warn("Could not refresh revoked tokens from Redis: {}", e.getMessage());
+        }
+        revoked.values().removeIf(expiresAtMs -> expiresAtMs <= now);
+    }
+
+    private static String refreshKey(String refreshToken) {
+        return REFRESH_PREFIX + HashUtil.sha256Hex(refreshToken);
+    }
+}
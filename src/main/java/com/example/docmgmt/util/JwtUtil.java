@@ -1,10 +1,15 @@
 package com.example.docmgmt.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
@@ -12,68 +17,126 @@ import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies the HS512 access tokens. The signing key and parser are built once, and
+ * {@link #verify(String)} remembers recently verified tokens (by hash, until they expire) so a client
+ * sending the same token on every request pays for the signature check once.
+ */
 @Component
 public class JwtUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
 
-    @Value("${jwt.secret}")
-    private String secret;
-
-    @Value("${jwt.expiration}")
-    private Long expiration;
-
-    @Value("${jwt.token.prefix}")
-    private String tokenPrefix;
-
-    @Value("${jwt.header}")
-    private String header;
+    // Signed authorities of the subject, e.g. ["ROLE_ADMIN"]
+    public static final String AUTHORITIES_CLAIM = "authorities";
+
+    private final Long expiration;
+    private final String tokenPrefix;
+    private final String header;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Cache<String, Claims> verifiedTokens;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") Long expiration,
+                   @Value("${jwt.token.prefix}") String tokenPrefix,
+                   @Value("${jwt.header}") String header,
+                   @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize) {
+        if (secret == null || secret.length() < 64) {
+            logger.error("JWT secret key is invalid: length={} (must be at least 64 characters for HS512)", secret != null ? secret.length() : 0);
+            throw new IllegalStateException("JWT secret key must be at least 64 characters for HS512");
+        }
+        if (expiration == null || expiration <= 0) {
+            logger.error("JWT expiration time is invalid: {}", expiration);
+            throw new IllegalStateException("JWT expiration time is invalid");
+        }
+        this.expiration = expiration;
+        this.tokenPrefix = tokenPrefix;
+        this.header = header;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+    }
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    /**
+     * Checks signature and expiry and returns all claims of the token. Throws {@link JwtException}
+     * when the token is not valid.
+     */
+    public Claims verify(String token) {
+        String jwt = stripPrefix(token);
+        if (jwt == null || jwt.isEmpty()) {
+            throw new MalformedJwtException("Empty JWT token");
+        }
+        String key = HashUtil.sha256Hex(jwt);
+        Claims claims = verifiedTokens.getIfPresent(key);
+        if (claims != null) {
+            return claims;
+        }
+        claims = parse(jwt);
+        verifiedTokens.put(key, claims);
+        return claims;
     }
 
     public String extractUsername(String token) {
-        if (token != null && token.startsWith(tokenPrefix)) {
-            token = token.substring(tokenPrefix.length()).trim();
-        }
         return extractClaim(token, Claims::getSubject);
     }
 
     public Date extractExpiration(String token) {
-        if (token != null && token.startsWith(tokenPrefix)) {
-            token = token.substring(tokenPrefix.length()).trim();
-        }
         return extractClaim(token, Claims::getExpiration);
     }
 
+    /**
+     * Authorities signed into the token when it was issued. Empty for tokens issued before the
+     * claim existed, callers then have to look the user up.
+     */
+    public List<GrantedAuthority> extractAuthorities(String token) {
+        return extractClaim(token, JwtUtil::getAuthorities);
+    }
+
+    public static List<GrantedAuthority> getAuthorities(Claims claims) {
+        List<?> authorities = claims.get(AUTHORITIES_CLAIM, List.class);
+        if (authorities == null) {
+            return List.of();
+        }
+        return authorities.stream()
+                .map(authority -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(authority)))
+                .toList();
+    }
+
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verify(token));
     }
 
-    private Claims extractAllClaims(String token) {
+    private Claims parse(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser.parseClaimsJws(token).getBody();
         } catch (Exception e) {
             logger.error("Error parsing JWT token: {}", e.getMessage());
             throw e;
         }
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private String stripPrefix(String token) {
+        if (token != null && token.startsWith(tokenPrefix)) {
+            return token.substring(tokenPrefix.length()).trim();
+        }
+        return token;
     }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(AUTHORITIES_CLAIM, userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
         try {
             String token = createToken(claims, userDetails.getUsername());
             return tokenPrefix + " " + token;
@@ -84,33 +147,49 @@ public class JwtUtil {
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
-        if (secret == null || secret.length() < 64) {
-            logger.error("JWT secret key is invalid: length={} (must be at least 64 characters for HS512)", secret != null ? secret.length() : 0);
-            throw new IllegalStateException("JWT secret key must be at least 64 characters for HS512");
-        }
-        if (expiration == null || expiration <= 0) {
-            logger.error("JWT expiration time is invalid: {}", expiration);
-            throw new IllegalStateException("JWT expiration time is invalid");
-        }
-
         return Jwts.builder()
                 .setClaims(claims)
+                // Lets a single token be revoked before it expires
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        if (token != null && token.startsWith(tokenPrefix)) {
-            token = token.substring(tokenPrefix.length()).trim();
+        try {
+            return verify(token).getSubject().equals(userDetails.getUsername());
+        } catch (JwtException e) {
+            return false;
         }
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
     }
 
     public String getHeader() {
         return header;
     }
+
+    // A verified token is remembered only for as long as it would still pass verification
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiresAt = claims.getExpiration();
+            if (expiresAt == null) {
+                return 0;
+            }
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiresAt.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
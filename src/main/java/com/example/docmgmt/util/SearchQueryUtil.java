@@ -0,0 +1,25 @@
+package com.example.docmgmt.util;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class SearchQueryUtil {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SearchQueryUtil() {
+    }
+
+    /**
+     * Case-folded, trimmed, with runs of whitespace collapsed. The search backends analyse the
+     * query the same way, so this changes nothing about the results and the normalised form can
+     * serve as the cache key. Term order is kept: the database fallback matches the query as a
+     * phrase, so reordered queries can have different results.
+     */
+    public static String normalize(String query) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        return WHITESPACE.matcher(query.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,48 @@
+-- Runs after Hibernate has created/updated the tables (spring.jpa.defer-datasource-initialization=true).
+-- The search vector is computed by Postgres when a content row is written and kept in a GIN index,
+-- so full-text search no longer parses every document at query time. A tsvector is limited to 1 MB,
+-- so only the first 500,000 characters are indexed; longer texts would otherwise fail the INSERT.
+-- Databases created before the cap keep the old expression until the column is dropped once by hand
+-- (ALTER TABLE document_contents DROP COLUMN search_vector), this script then adds it back capped.
+ALTER TABLE document_contents
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+        GENERATED ALWAYS AS (to_tsvector('english', left(coalesce(content, ''), 500000))) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_document_contents_search_vector
+    ON document_contents USING GIN (search_vector);
+
+-- documents.id and document_contents.id come from pooled sequences (allocation size 50). Tables
+-- created while ids were IDENTITY already hold rows, so each sequence is moved past them. It never
+-- moves backwards, which keeps id blocks already handed out to running instances valid.
+SELECT setval('documents_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM documents) + 50,
+                                        (SELECT last_value FROM documents_seq)));
+SELECT setval('document_contents_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM document_contents) + 50,
+                                                 (SELECT last_value FROM document_contents_seq)));
+
+-- The keyset listing pages on (created_at, id). Rows stored before created_at was always set are
+-- dated to the epoch, so they sort last, and the column is then made mandatory.
+UPDATE documents SET created_at = TIMESTAMP '1970-01-01 00:00:00' WHERE created_at IS NULL;
+ALTER TABLE documents ALTER COLUMN created_at SET NOT NULL;
+
+-- Rows stored before texts moved to document_contents still hold theirs in documents.content, a large
+-- object (Hibernate maps the old @Lob String to oid on Postgres). Each distinct text is copied once,
+-- keyed by the SHA-256 of its UTF-8 bytes like imported rows, and the rows are linked to it. Rows that
+-- already have a content_id are skipped, so this runs on every start without effect once done. The
+-- column is added empty on databases that never had it, only so the statements below can be parsed.
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS content oid;
+
+INSERT INTO document_contents (id, content_hash, content, created_at)
+SELECT nextval('document_contents_seq'), legacy.content_hash, legacy.content, now()
+FROM (SELECT DISTINCT encode(sha256(lo_get(content)), 'hex') AS content_hash,
+                      convert_from(lo_get(content), 'UTF8') AS content
+      FROM documents
+      WHERE content_id IS NULL AND content IS NOT NULL) legacy
+ON CONFLICT (content_hash) DO NOTHING;
+
+UPDATE documents d
+SET content_id = c.id,
+    content_hash = COALESCE(d.content_hash, c.content_hash)
+FROM document_contents c
+WHERE d.content_id IS NULL
+  AND d.content IS NOT NULL
+  AND c.content_hash = encode(sha256(lo_get(d.content)), 'hex');
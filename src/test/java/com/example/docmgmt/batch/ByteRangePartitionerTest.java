@@ -0,0 +1,68 @@
+package com.example.docmgmt.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteRangePartitionerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPartitionsCoverEveryLineExactlyOnce() throws IOException {
+        List<String> lines = IntStream.range(0, 1000)
+                .mapToObj(i -> i + ",Title " + i + ",content " + "x".repeat(i % 37) + ",author,PDF")
+                .toList();
+        Path file = Files.write(tempDir.resolve("documents.csv"), lines, StandardCharsets.UTF_8);
+
+        Map<String, ExecutionContext> partitions = new ByteRangePartitioner(file).partition(4);
+
+        assertEquals(4, partitions.size());
+        List<String> read = new ArrayList<>();
+        for (ExecutionContext context : partitions.values()) {
+            String range = readRange(file, context);
+            assertTrue(range.isEmpty() || range.endsWith("\n"), "range must end on a line break");
+            range.lines().forEach(read::add);
+        }
+        assertEquals(lines, read);
+    }
+
+    @Test
+    void testSmallFileYieldsFewerPartitions() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("one.csv"), "1,Title,content,author,PDF\n");
+
+        Map<String, ExecutionContext> partitions = new ByteRangePartitioner(file).partition(8);
+
+        assertEquals(1, partitions.size());
+        assertEquals("1,Title,content,author,PDF\n", readRange(file, partitions.values().iterator().next()));
+    }
+
+    @Test
+    void testEmptyFileHasNoPartitions() throws IOException {
+        Path file = Files.createFile(tempDir.resolve("empty.csv"));
+
+        assertTrue(new ByteRangePartitioner(file).partition(4).isEmpty());
+    }
+
+    private static String readRange(Path file, ExecutionContext context) throws IOException {
+        ByteRangeResource resource = new ByteRangeResource(file,
+                context.getLong(ByteRangePartitioner.START_OFFSET), context.getLong(ByteRangePartitioner.END_OFFSET));
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.docmgmt.batch;
+
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.repository.DocumentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DocumentIdRangeReaderTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Test
+    void testReadsRangePageByPage() {
+        when(documentRepository.findPageAfter(eq(0L), eq(10L), any(Pageable.class))).thenReturn(List.of(doc(1), doc(2)));
+        when(documentRepository.findPageAfter(eq(2L), eq(10L), any(Pageable.class))).thenReturn(List.of(doc(5)));
+
+        DocumentIdRangeReader reader = new DocumentIdRangeReader(documentRepository, 1, 10, 2);
+        reader.open(new ExecutionContext());
+
+        assertEquals(1L, reader.read().getId());
+        assertEquals(2L, reader.read().getId());
+        assertEquals(5L, reader.read().getId());
+        assertNull(reader.read());
+        // A short page is the last one, no further query is needed
+        verify(documentRepository, times(2)).findPageAfter(any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void testRestartContinuesAfterLastSavedId() {
+        DocumentIdRangeReader reader = new DocumentIdRangeReader(documentRepository, 1, 10, 2);
+        ExecutionContext context = new ExecutionContext();
+        when(documentRepository.findPageAfter(eq(0L), eq(10L), any(Pageable.class))).thenReturn(List.of(doc(1), doc(2)));
+        reader.open(context);
+        reader.read();
+        reader.read();
+        reader.update(context);
+
+        when(documentRepository.findPageAfter(eq(2L), eq(10L), any(Pageable.class))).thenReturn(List.of(doc(3)));
+        DocumentIdRangeReader restarted = new DocumentIdRangeReader(documentRepository, 1, 10, 2);
+        restarted.open(context);
+
+        assertEquals(3L, restarted.read().getId());
+        assertNull(restarted.read());
+    }
+
+    private static Document doc(long id) {
+        Document document = new Document();
+        document.setId(id);
+        return document;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.docmgmt.batch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdRangePartitionerTest {
+
+    @Test
+    void testRangesAreContiguousAndCoverAllIds() {
+        Map<String, ExecutionContext> partitions = new IdRangePartitioner(1, 100).partition(4);
+
+        List<ExecutionContext> ranges = List.copyOf(partitions.values());
+        assertEquals(4, ranges.size());
+        assertEquals(1, ranges.get(0).getLong(IdRangePartitioner.MIN_ID));
+        for (int i = 1; i < ranges.size(); i++) {
+            assertEquals(ranges.get(i - 1).getLong(IdRangePartitioner.MAX_ID) + 1, ranges.get(i).getLong(IdRangePartitioner.MIN_ID));
+        }
+        assertEquals(100, ranges.get(ranges.size() - 1).getLong(IdRangePartitioner.MAX_ID));
+    }
+
+    @Test
+    void testNarrowRangeYieldsFewerPartitions() {
+        Map<String, ExecutionContext> partitions = new IdRangePartitioner(5, 6).partition(8);
+
+        assertEquals(2, partitions.size());
+    }
+
+    @Test
+    void testEmptyTableHasNoPartitions() {
+        assertTrue(new IdRangePartitioner(1, 0).partition(4).isEmpty());
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.docmgmt.batch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionTotalsTest {
+
+    @Test
+    void testRunningWorkersAreSummedBeforeTheManagerFinishes() {
+        JobExecution execution = new JobExecution(1L);
+        StepExecution manager = execution.createStepExecution("documentStep.manager");
+        StepExecution first = execution.createStepExecution("documentStep:partition0");
+        first.setReadCount(500);
+        first.setWriteCount(490);
+        first.setWriteSkipCount(10);
+        StepExecution second = execution.createStepExecution("documentStep:partition1");
+        second.setReadCount(1000);
+        second.setWriteCount(1000);
+
+        PartitionTotals totals = PartitionTotals.of(execution, "documentStep");
+
+        assertEquals(0, manager.getReadCount());
+        assertEquals(1500, totals.readCount());
+        assertEquals(1490, totals.writeCount());
+        assertEquals(10, totals.skipCount());
+    }
+
+    @Test
+    void testOtherStepsAreIgnored() {
+        JobExecution execution = new JobExecution(1L);
+        execution.createStepExecution("reindexPrepareStep").setReadCount(7);
+        execution.createStepExecution("reindexStep.manager").setReadCount(7);
+
+        assertEquals(0, PartitionTotals.of(execution, "reindexStep").readCount());
+    }
+}
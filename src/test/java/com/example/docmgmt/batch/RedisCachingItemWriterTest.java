@@ -0,0 +1,65 @@
+package com.example.docmgmt.batch;
+
+import com.example.docmgmt.model.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.item.Chunk;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RedisCachingItemWriterTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Test
+    void testChunkIsCachedWithOneMultiSet() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        Document first = document(1L);
+        Document second = document(2L);
+
+        new RedisCachingItemWriter(redisTemplate, Duration.ZERO).write(Chunk.of(first, second));
+
+        verify(valueOperations, times(1)).multiSet(Map.of("doc:1", first, "doc:2", second));
+        verify(valueOperations, never()).set(any(), any());
+    }
+
+    @Test
+    void testChunkWithTtlIsPipelined() {
+        new RedisCachingItemWriter(redisTemplate, Duration.ofHours(1)).write(Chunk.of(document(1L), document(2L)));
+
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verify(redisTemplate, never()).opsForValue();
+    }
+
+    @Test
+    void testRedisFailureDoesNotFailTheChunk() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        doThrow(new RedisConnectionFailureException("down")).when(valueOperations).multiSet(anyMap());
+
+        assertDoesNotThrow(() -> new RedisCachingItemWriter(redisTemplate, Duration.ZERO).write(Chunk.of(document(1L))));
+    }
+
+    private static Document document(Long id) {
+        Document document = new Document();
+        document.setId(id);
+        document.setTitle("Title " + id);
+        return document;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.docmgmt.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TwoLevelCacheTest {
+
+    private ConcurrentMapCache remote;
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+    private SimpleMeterRegistry meterRegistry;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache("qaResults");
+        local = Caffeine.newBuilder().maximumSize(100).build();
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TwoLevelCache("qaResults", local, remote, meterRegistry);
+    }
+
+    @Test
+    void testRemoteHitIsCopiedToLocalTier() {
+        remote.put("k", "v");
+
+        assertEquals("v", cache.get("k", String.class));
+        assertEquals("v", local.getIfPresent("k"));
+
+        cache.get("k");
+        assertEquals(1.0, hits("redis"));
+        assertEquals(1.0, hits("local"));
+    }
+
+    @Test
+    void testConcurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get("k", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await();
+            return "v";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> cache.get("k", () -> {
+            loads.incrementAndGet();
+            return "other";
+        }));
+        release.countDown();
+
+        assertEquals("v", first.get(5, TimeUnit.SECONDS));
+        assertEquals("v", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testWaitingCallersShareTheFailure() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get("k", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await();
+            throw new IllegalStateException("search down");
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        AtomicReference<Throwable> waiterFailure = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                cache.get("k", () -> {
+                    loads.incrementAndGet();
+                    return "other";
+                });
+            } catch (Throwable e) {
+                waiterFailure.set(e);
+            }
+        });
+        waiter.start();
+        // The waiter parks on the running load before it is allowed to fail
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (waiter.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        waiter.join(5_000);
+
+        assertInstanceOf(Cache.ValueRetrievalException.class,
+                assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS)).getCause());
+        assertInstanceOf(Cache.ValueRetrievalException.class, waiterFailure.get());
+        assertEquals(1, loads.get());
+        assertNull(local.getIfPresent("k"));
+    }
+
+    @Test
+    void testLoaderRunsOnceAndFillsBothTiers() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v", cache.get("k", () -> {
+            loads.incrementAndGet();
+            return "v";
+        }));
+        assertEquals("v", cache.get("k", () -> {
+            loads.incrementAndGet();
+            return "other";
+        }));
+
+        assertEquals(1, loads.get());
+        assertEquals("v", remote.get("k").get());
+        assertEquals("v", local.getIfPresent("k"));
+    }
+
+    @Test
+    void testFailingRemoteTierIsTreatedAsMiss() {
+        Cache failing = mock(Cache.class);
+        when(failing.get("k")).thenThrow(new RedisConnectionFailureException("Connection refused"));
+        doThrow(new RedisConnectionFailureException("Connection refused")).when(failing).put(eq("k"), any());
+        TwoLevelCache degraded = new TwoLevelCache("qaResults", local, failing, meterRegistry);
+
+        assertNull(degraded.get("k"));
+        assertEquals("v", degraded.get("k", () -> "v"));
+        assertEquals("v", local.getIfPresent("k"));
+    }
+
+    @Test
+    void testEvictRemovesFromBothTiers() {
+        cache.put("k", "v");
+
+        cache.evict("k");
+
+        assertNull(cache.get("k"));
+        assertNull(remote.get("k"));
+        assertNull(local.getIfPresent("k"));
+        assertEquals(1.0, meterRegistry.get("docmgmt.cache.gets").tag("result", "miss").counter().count());
+    }
+
+    private double hits(String tier) {
+        return meterRegistry.get("docmgmt.cache.gets").tag("tier", tier).tag("result", "hit").counter().count();
+    }
+}
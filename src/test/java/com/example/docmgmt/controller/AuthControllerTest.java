@@ -2,6 +2,8 @@ package com.example.docmgmt.controller;
 
 import com.example.docmgmt.config.SecurityConfig;
 import com.example.docmgmt.model.JwtRequest;
+import com.example.docmgmt.model.JwtResponse;
+import com.example.docmgmt.model.RefreshTokenRequest;
 import com.example.docmgmt.model.User;
 import com.example.docmgmt.service.AuthService;
 import com.example.docmgmt.service.AuthServiceTest;
@@ -20,7 +22,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(AuthController.class)
@@ -75,13 +79,42 @@ public class AuthControllerTest {
         jwtRequest.setUsername("testuser");
         jwtRequest.setPassword("password");
 
-        when(authService.login("testuser", "password")).thenReturn("test-token");
+        when(authService.login("testuser", "password")).thenReturn(new JwtResponse("test-token", "refresh-token"));
 
         mockMvc.perform(post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(jwtRequest)))
                 .andExpect(status().isOk())
-                .andExpect(content().string("test-token"));
+                .andExpect(jsonPath("$.token").value("test-token"))
+                .andExpect(jsonPath("$.refreshToken").value("refresh-token"));
+    }
+
+    @Test
+    public void testRefresh_Success() throws Exception {
+        RefreshTokenRequest refreshRequest = new RefreshTokenRequest();
+        refreshRequest.setRefreshToken("refresh-token");
+
+        when(authService.refresh("refresh-token")).thenReturn(new JwtResponse("new-token", "new-refresh-token"));
+
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(refreshRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("new-token"))
+                .andExpect(jsonPath("$.refreshToken").value("new-refresh-token"));
+    }
+
+    @Test
+    public void testRefresh_InvalidToken() throws Exception {
+        RefreshTokenRequest refreshRequest = new RefreshTokenRequest();
+        refreshRequest.setRefreshToken("used-token");
+
+        when(authService.refresh("used-token")).thenThrow(new BadCredentialsException("Invalid or expired refresh token"));
+
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(refreshRequest)))
+                .andExpect(status().isUnauthorized());
     }
 
     @Test
@@ -98,11 +131,31 @@ public class AuthControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testChangeRole_Admin() throws Exception {
+        mockMvc.perform(put("/api/auth/users/testuser/role").param("role", "EDITOR"))
+                .andExpect(status().isOk());
+
+        verify(authService).changeRole("testuser", "EDITOR");
+    }
+
+    @Test
+    @WithMockUser(roles = "EDITOR")
+    public void testChangeRole_ForbiddenForNonAdmin() throws Exception {
+        mockMvc.perform(put("/api/auth/users/testuser/role").param("role", "ADMIN"))
+                .andExpect(status().isForbidden());
+
+        verify(authService, never()).changeRole(any(), any());
+    }
+
     @Test
     @WithMockUser
     public void testLogout_Success() throws Exception {
         mockMvc.perform(post("/api/auth/logout"))
                 .andExpect(status().isOk())
                 .andExpect(content().string("Logged out successfully"));
+
+        verify(authService).logout(null, null);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.example.docmgmt.controller;
+
+import com.example.docmgmt.config.SecurityConfig;
+import com.example.docmgmt.model.BatchImportStatus;
+import com.example.docmgmt.model.ReindexStatus;
+import com.example.docmgmt.service.BatchImportService;
+import com.example.docmgmt.service.ReindexService;
+import com.example.docmgmt.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BatchController.class)
+@Import({SecurityConfig.class, GlobalExceptionHandler.class})
+public class BatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BatchImportService batchImportService;
+
+    @MockBean
+    private ReindexService reindexService;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testStartImport_Accepted() throws Exception {
+        when(batchImportService.startImport("documents.csv")).thenReturn(
+                new BatchImportStatus(7L, "/import/documents.csv", "STARTING", "UNKNOWN", 0, 0, 0, null, null));
+
+        mockMvc.perform(post("/api/batch/import").param("path", "documents.csv"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.executionId").value(7));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testStartImport_AlreadyImported() throws Exception {
+        when(batchImportService.startImport("documents.csv"))
+                .thenThrow(new IllegalArgumentException("File has already been imported: documents.csv"));
+
+        mockMvc.perform(post("/api/batch/import").param("path", "documents.csv"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "EDITOR")
+    public void testStartImport_ForbiddenForNonAdmin() throws Exception {
+        mockMvc.perform(post("/api/batch/import").param("path", "documents.csv"))
+                .andExpect(status().isForbidden());
+
+        verify(batchImportService, never()).startImport(any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testGetImport_Progress() throws Exception {
+        when(batchImportService.getImport(7L)).thenReturn(Optional.of(
+                new BatchImportStatus(7L, "/import/documents.csv", "STARTED", "UNKNOWN", 1500, 1000, 0, null, null)));
+
+        mockMvc.perform(get("/api/batch/import/7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("STARTED"))
+                .andExpect(jsonPath("$.writeCount").value(1000));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testGetImport_NotFound() throws Exception {
+        when(batchImportService.getImport(99L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/batch/import/99"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testStartReindex_Accepted() throws Exception {
+        when(reindexService.startReindex()).thenReturn(
+                new ReindexStatus(12L, null, "STARTING", "UNKNOWN", 0, 0, null, null));
+
+        mockMvc.perform(post("/api/batch/reindex"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.executionId").value(12));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testStartReindex_AlreadyRunning() throws Exception {
+        when(reindexService.startReindex()).thenThrow(new IllegalArgumentException("A reindex is already running"));
+
+        mockMvc.perform(post("/api/batch/reindex"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "EDITOR")
+    public void testStartReindex_ForbiddenForNonAdmin() throws Exception {
+        mockMvc.perform(post("/api/batch/reindex"))
+                .andExpect(status().isForbidden());
+
+        verify(reindexService, never()).startReindex();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testGetReindex_Progress() throws Exception {
+        when(reindexService.getReindex(12L)).thenReturn(Optional.of(
+                new ReindexStatus(12L, "documents_v20260101120000", "STARTED", "UNKNOWN", 5000, 4000, null, null)));
+
+        mockMvc.perform(get("/api/batch/reindex/12"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.targetIndex").value("documents_v20260101120000"))
+                .andExpect(jsonPath("$.writeCount").value(4000));
+    }
+}
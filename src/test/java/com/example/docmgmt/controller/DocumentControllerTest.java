@@ -1,28 +1,46 @@
 package com.example.docmgmt.controller;
 
 import com.example.docmgmt.config.SecurityConfig;
+import com.example.docmgmt.messaging.DocumentPublisher;
+import com.example.docmgmt.model.BulkEntryResult;
+import com.example.docmgmt.model.BulkIngestJob;
+import com.example.docmgmt.model.CursorPage;
 import com.example.docmgmt.model.DocumentDTO;
+import com.example.docmgmt.model.SliceResult;
+import com.example.docmgmt.model.SpooledFile;
+import com.example.docmgmt.service.BulkIngestService;
 import com.example.docmgmt.service.DocumentService;
 import com.example.docmgmt.service.DocumentServiceTest;
+import com.example.docmgmt.service.FileSpoolService;
 import com.example.docmgmt.util.JwtUtil;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -36,6 +54,15 @@ class DocumentControllerTest {
     @MockBean
     private DocumentService documentService;
 
+    @MockBean
+    private FileSpoolService fileSpoolService;
+
+    @MockBean
+    private BulkIngestService bulkIngestService;
+
+    @MockBean
+    private DocumentPublisher documentPublisher;
+
     @MockBean
     private JwtUtil jwtUtil;
 
@@ -45,6 +72,7 @@ class DocumentControllerTest {
         MockMultipartFile file = new MockMultipartFile("file", "test.txt", MediaType.TEXT_PLAIN_VALUE, "Hello, World!".getBytes());
         String metadataJson = "{\"title\":\"Test Title\",\"author\":\"Test Author\"}";
 
+        when(fileSpoolService.spool(any(MultipartFile.class))).thenReturn(new SpooledFile(Path.of("upload-test.txt"), "abc123", 13));
         doNothing().when(documentService).processDocumentAsync(any(), any(), any());
 
         mockMvc.perform(multipart("/api/documents/upload")
@@ -53,6 +81,43 @@ class DocumentControllerTest {
                 .andExpect(status().isAccepted());
     }
     
+    @Test
+    @WithMockUser(roles = {"ADMIN", "EDITOR"})
+    void testUploadFileWithMetadata_DuplicateContent() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "test.txt", MediaType.TEXT_PLAIN_VALUE, "Hello, World!".getBytes());
+        String metadataJson = "{\"title\":\"Test Title\",\"author\":\"Test Author\"}";
+
+        when(fileSpoolService.spool(any(MultipartFile.class))).thenReturn(new SpooledFile(Path.of("upload-test.txt"), "abc123", 13));
+        when(documentService.linkDuplicate(any(), any(), any())).thenReturn(true);
+
+        mockMvc.perform(multipart("/api/documents/upload")
+                        .file(file)
+                        .param("metadata", metadataJson))
+                .andExpect(status().isAccepted());
+
+        verify(documentService, never()).processDocumentAsync(any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN", "EDITOR"})
+    void testUploadFileWithMetadata_ExtractionSaturated() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "test.txt", MediaType.TEXT_PLAIN_VALUE, "Hello, World!".getBytes());
+        String metadataJson = "{\"title\":\"Test Title\",\"author\":\"Test Author\"}";
+        Path spooledFile = Path.of("upload-test.txt");
+
+        when(fileSpoolService.spool(any(MultipartFile.class))).thenReturn(new SpooledFile(spooledFile, "abc123", 13));
+        doThrow(new TaskRejectedException("Extraction queue is full"))
+                .when(documentService).processDocumentAsync(any(), any(), any());
+
+        mockMvc.perform(multipart("/api/documents/upload")
+                        .file(file)
+                        .param("metadata", metadataJson))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+
+        verify(fileSpoolService).discard(spooledFile);
+    }
+
     @Test
     @WithMockUser(roles = {"ADMIN", "EDITOR"})
     void testUploadFileWithMetadata_EmptyFile() throws Exception {
@@ -65,6 +130,52 @@ class DocumentControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @WithMockUser(roles = {"ADMIN", "EDITOR"})
+    void testBulkUpload_Accepted() throws Exception {
+        MockMultipartFile first = new MockMultipartFile("files", "a.txt", MediaType.TEXT_PLAIN_VALUE, "first".getBytes());
+        MockMultipartFile second = new MockMultipartFile("files", "b.txt", MediaType.TEXT_PLAIN_VALUE, "second".getBytes());
+        BulkIngestJob job = new BulkIngestJob("job-1", List.of(new BulkEntryResult("a.txt"), new BulkEntryResult("b.txt")));
+
+        when(bulkIngestService.submit(anyList(), any(), any(), any())).thenReturn(job);
+
+        mockMvc.perform(multipart("/api/documents/bulk")
+                        .file(first)
+                        .file(second)
+                        .param("manifest", "{\"a.txt\":{\"author\":\"John\"}}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.entries.length()").value(2));
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN", "EDITOR"})
+    void testGetBulkJob_NotFound() throws Exception {
+        when(bulkIngestService.getJob("missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/documents/bulk/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void testReplayFailed() throws Exception {
+        when(documentPublisher.replayParked(20)).thenReturn(3);
+
+        mockMvc.perform(post("/api/documents/failed/replay").param("max", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.replayed").value(3));
+    }
+
+    @Test
+    @WithMockUser(roles = {"EDITOR"})
+    void testReplayFailed_RequiresAdmin() throws Exception {
+        mockMvc.perform(post("/api/documents/failed/replay"))
+                .andExpect(status().isForbidden());
+
+        verify(documentPublisher, never()).replayParked(anyInt());
+    }
+
     @Test
     @WithMockUser(roles = {"ADMIN", "EDITOR"})
     void testGetDocuments() throws Exception {
@@ -76,4 +187,40 @@ class DocumentControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content[0].title").value("Test Doc"));
     }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN", "EDITOR"})
+    void testGetDocumentSlice() throws Exception {
+        DocumentDTO dto = new DocumentDTO(1L, "Test Doc", "John", "PDF");
+        when(documentService.getDocumentSlice(eq("John"), isNull(), eq(0), eq(10), eq("createdAt,desc"), eq(false)))
+                .thenReturn(new SliceResult<>(List.of(dto), 0, 10, true, null, null));
+
+        mockMvc.perform(get("/api/documents/slice?author=John"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("Test Doc"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN", "EDITOR"})
+    void testGetDocumentsByCursor() throws Exception {
+        DocumentDTO dto = new DocumentDTO(1L, "Test Doc", "John", "PDF");
+        when(documentService.getDocumentsAfter(isNull(), isNull(), eq("abc"), eq(10)))
+                .thenReturn(new CursorPage<>(List.of(dto), "next"));
+
+        mockMvc.perform(get("/api/documents/cursor?cursor=abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("Test Doc"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN", "EDITOR"})
+    void testGetDocumentsByCursor_InvalidCursor() throws Exception {
+        when(documentService.getDocumentsAfter(any(), any(), eq("garbage"), anyInt()))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/documents/cursor?cursor=garbage"))
+                .andExpect(status().isBadRequest());
+    }
 } 
\ No newline at end of file
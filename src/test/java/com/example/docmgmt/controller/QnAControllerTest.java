@@ -1,7 +1,8 @@
 package com.example.docmgmt.controller;
 
 import com.example.docmgmt.config.SecurityConfig;
-import com.example.docmgmt.model.Document;
+import com.example.docmgmt.model.SearchResultDTO;
+import com.example.docmgmt.model.SliceResult;
 import com.example.docmgmt.service.QnAService;
 import com.example.docmgmt.service.QnAServiceTest;
 import com.example.docmgmt.util.JwtUtil;
@@ -15,9 +16,11 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.hamcrest.Matchers.hasSize;
@@ -39,26 +42,51 @@ public class QnAControllerTest {
     @Test
     @WithMockUser(roles = {"ADMIN", "EDITOR", "VIEWER"})
     public void testSearch_Success() throws Exception {
-        Document doc = new Document();
-        doc.setId(1L);
-        doc.setTitle("Test Document");
-        List<Document> documents = List.of(doc);
+        SearchResultDTO result = new SearchResultDTO("1", "Test Document", "John Doe", "PDF", null, 1.5f,
+                List.of("a <em>test</em> document"));
+        SliceResult<SearchResultDTO> page = new SliceResult<>(List.of(result), 0, 10, false, 1L, true);
 
-        when(qnAService.searchDocuments("test")).thenReturn(documents);
+        when(qnAService.searchDocuments("test", 0, 10)).thenReturn(page);
 
         mockMvc.perform(get("/api/qa/search").param("query", "test"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].title", is("Test Document")));
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].title", is("Test Document")))
+                .andExpect(jsonPath("$.items[0].highlights[0]", is("a <em>test</em> document")))
+                .andExpect(jsonPath("$.items[0].content").doesNotExist());
     }
 
     @Test
     @WithMockUser(roles = {"ADMIN", "EDITOR", "VIEWER"})
     public void testSearch_NoResults() throws Exception {
-        when(qnAService.searchDocuments("empty")).thenReturn(Collections.emptyList());
+        when(qnAService.searchDocuments("empty", 0, 10))
+                .thenReturn(new SliceResult<>(Collections.emptyList(), 0, 10, false, 0L, true));
 
         mockMvc.perform(get("/api/qa/search").param("query", "empty"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(0)));
+                .andExpect(jsonPath("$.items", hasSize(0)));
     }
-} 
\ No newline at end of file
+
+    @Test
+    @WithMockUser(roles = {"VIEWER"})
+    public void testSearch_BeyondResultWindow() throws Exception {
+        when(qnAService.searchDocuments("test", 500, 10))
+                .thenThrow(new IllegalArgumentException("Only the first 1000 hits can be paged through, refine the query"));
+
+        mockMvc.perform(get("/api/qa/search").param("query", "test").param("page", "500"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = {"VIEWER"})
+    public void testGetContent() throws Exception {
+        when(qnAService.getContent(1L)).thenReturn(Optional.of("full text"));
+        when(qnAService.getContent(2L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/qa/documents/1/content"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("full text"));
+        mockMvc.perform(get("/api/qa/documents/2/content"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.docmgmt.messaging;
+
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.model.DocumentMessage;
+import com.example.docmgmt.service.ContentStore;
+import com.example.docmgmt.util.HashUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class DocumentPublisherTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @TempDir
+    Path storeDir;
+
+    private ContentStore contentStore;
+    private DocumentPublisher documentPublisher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        contentStore = new ContentStore(storeDir.toString(), Duration.ofDays(7));
+        documentPublisher = new DocumentPublisher(rabbitTemplate, contentStore, true, 10);
+    }
+
+    @Test
+    void testLargeContentIsReplacedByReference() throws Exception {
+        Document document = document("a large extracted body of text");
+
+        DocumentMessage message = documentPublisher.toMessage(document);
+
+        assertNull(message.getContent());
+        assertEquals(document.getContentHash(), message.getContentRef());
+        assertEquals("a large extracted body of text", contentStore.get(message.getContentRef()).orElseThrow());
+    }
+
+    @Test
+    void testIngestIdIsAssignedOnceAndReused() {
+        Document document = document("short");
+
+        DocumentMessage first = documentPublisher.toMessage(document);
+        DocumentMessage second = documentPublisher.toMessage(document);
+
+        assertNotNull(first.getIngestId());
+        assertEquals(first.getIngestId(), second.getIngestId());
+    }
+
+    @Test
+    void testSmallContentStaysInline() {
+        DocumentMessage message = documentPublisher.toMessage(document("short"));
+
+        assertEquals("short", message.getContent());
+        assertNull(message.getContentRef());
+    }
+
+    @Test
+    void testPublishSendsMessageToDocumentQueue() {
+        Document document = document("short");
+
+        documentPublisher.publish(document);
+
+        verify(rabbitTemplate).convertAndSend(eq("documentQueue"), org.mockito.ArgumentMatchers.<Object>argThat(
+                message -> message instanceof DocumentMessage documentMessage && "Test Doc".equals(documentMessage.getTitle())),
+                any(MessagePostProcessor.class));
+    }
+
+    private static Document document(String content) {
+        Document document = new Document();
+        document.setTitle("Test Doc");
+        document.setContent(content);
+        document.setContentHash(HashUtil.sha256Hex(content));
+        return document;
+    }
+}
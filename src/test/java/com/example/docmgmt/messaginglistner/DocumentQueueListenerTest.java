@@ -0,0 +1,186 @@
+package com.example.docmgmt.messaginglistner;
+
+import com.example.docmgmt.messaging.DocumentQueueMetrics;
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.model.DocumentContent;
+import com.example.docmgmt.model.DocumentMessage;
+import com.example.docmgmt.repository.DocumentRepository;
+import com.example.docmgmt.service.ContentStore;
+import com.example.docmgmt.service.DocumentContentService;
+import com.example.docmgmt.service.SearchOutboxService;
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DocumentQueueListenerTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private SearchOutboxService searchOutboxService;
+
+    @Mock
+    private DocumentContentService documentContentService;
+
+    @Mock
+    private ContentStore contentStore;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private DocumentQueueMetrics documentQueueMetrics;
+
+    @Mock
+    private Channel channel;
+
+    @InjectMocks
+    private DocumentQueueListener documentQueueListener;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doAnswer(invocation -> {
+            Collection<Document> documents = invocation.getArgument(0);
+            if (documents.stream().anyMatch(document -> "bad".equals(document.getTitle()))) {
+                throw new IllegalArgumentException("Document has neither content nor a content hash: bad");
+            }
+            documents.forEach(document -> document.setBody(new DocumentContent("hash-" + document.getTitle(), document.getContent())));
+            return null;
+        }).when(documentContentService).attachAll(anyCollection());
+        lenient().when(documentContentService.attach(any(Document.class))).thenAnswer(invocation -> {
+            Document document = invocation.getArgument(0);
+            document.setBody(new DocumentContent("hash-" + document.getTitle(), document.getContent()));
+            return document;
+        });
+    }
+
+    @Test
+    void testBatchIsSavedWithItsOutboxEventsInOneCall() throws Exception {
+        when(searchOutboxService.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        documentQueueListener.processDocuments(List.of(delivery(1, "a"), delivery(2, "b"), delivery(3, "c")), channel);
+
+        verify(searchOutboxService, times(1)).saveAll(argThat((List<Document> batch) -> batch.size() == 3));
+        verify(documentRepository, never()).saveAll(anyList());
+        // Stored texts are resolved for the whole batch at once
+        verify(documentContentService, times(1)).attachAll(argThat(batch -> batch.size() == 3));
+        verify(documentContentService, never()).attach(any(Document.class));
+        verifyNoInteractions(rabbitTemplate);
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+        verify(channel).basicAck(3, false);
+        verify(documentQueueMetrics).batchStarted();
+        verify(documentQueueMetrics).batchFinished();
+    }
+
+    @Test
+    void testFailingItemIsParkedAndRestOfBatchIsStored() throws Exception {
+        Message<DocumentMessage> bad = delivery(2, "bad");
+        when(documentContentService.attach(argThat(document -> document != null && "bad".equals(document.getTitle()))))
+                .thenThrow(new IllegalArgumentException("Document has neither content nor a content hash: bad"));
+        when(searchOutboxService.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        documentQueueListener.processDocuments(List.of(delivery(1, "a"), bad, delivery(3, "c")), channel);
+
+        verify(searchOutboxService, times(1)).saveAll(argThat((List<Document> batch) -> batch.size() == 2));
+        verify(rabbitTemplate, times(1)).convertAndSend(eq("documentQueue.failed"), eq(bad.getPayload()), any(MessagePostProcessor.class));
+        // Parked messages are acknowledged as well, they are safe on the parking-lot queue
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+        verify(channel).basicAck(3, false);
+    }
+
+    @Test
+    void testMessageIsRequeuedWhenItCannotBeParked() throws Exception {
+        when(documentContentService.attach(argThat(document -> document != null && "bad".equals(document.getTitle()))))
+                .thenThrow(new IllegalStateException("No stored content for hash"));
+        doThrow(new AmqpConnectException(new IOException("broker down")))
+                .when(rabbitTemplate).convertAndSend(eq("documentQueue.failed"), any(Object.class), any(MessagePostProcessor.class));
+
+        documentQueueListener.processDocuments(List.of(delivery(7, "bad")), channel);
+
+        verify(channel).basicNack(7, false, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+        verifyNoInteractions(documentRepository, searchOutboxService);
+    }
+
+    @Test
+    void testRedeliveredMessageIsAcknowledgedWithoutStoringAgain() throws Exception {
+        Document stored = new Document();
+        stored.setId(42L);
+        stored.setIngestId("ingest-1");
+        stored.setTitle("a");
+        stored.setBody(new DocumentContent("hash-a", "content of a"));
+        when(documentRepository.findByIngestIdIn(List.of("ingest-1"))).thenReturn(List.of(stored));
+
+        Message<DocumentMessage> redelivered = delivery(5, "a");
+        redelivered.getPayload().setIngestId("ingest-1");
+        documentQueueListener.processDocuments(List.of(redelivered), channel);
+
+        verifyNoInteractions(documentContentService, searchOutboxService);
+        verify(channel).basicAck(5, false);
+    }
+
+    @Test
+    void testBatchSaveFailureFallsBackToSingleSaves() throws Exception {
+        Message<DocumentMessage> bad = delivery(2, "bad");
+        when(searchOutboxService.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Document> documents = invocation.getArgument(0);
+            if (documents.size() > 1 || "bad".equals(documents.get(0).getTitle())) {
+                throw new DataIntegrityViolationException("constraint");
+            }
+            return documents;
+        });
+
+        documentQueueListener.processDocuments(List.of(delivery(1, "a"), bad), channel);
+
+        verify(searchOutboxService, times(3)).saveAll(anyList());
+        verify(rabbitTemplate, times(1)).convertAndSend(eq("documentQueue.failed"), eq(bad.getPayload()), any(MessagePostProcessor.class));
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+    }
+
+    @Test
+    void testUnexpectedFailureReturnsUnsettledMessagesToTheQueue() throws Exception {
+        when(searchOutboxService.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        Message<DocumentMessage> first = delivery(1, "a");
+        first.getPayload().setContentRef("ref-a");
+        doThrow(new IllegalStateException("spool directory gone")).when(contentStore).delete("ref-a");
+
+        documentQueueListener.processDocuments(List.of(first, delivery(2, "b")), channel);
+
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+        verify(channel).basicNack(1, false, true);
+        verify(channel).basicNack(2, false, true);
+        verify(documentQueueMetrics).batchFinished();
+    }
+
+    private static Message<DocumentMessage> delivery(long deliveryTag, String title) {
+        DocumentMessage message = new DocumentMessage();
+        message.setTitle(title);
+        message.setContent("content of " + title);
+        return MessageBuilder.withPayload(message)
+                .setHeader(AmqpHeaders.DELIVERY_TAG, deliveryTag)
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.docmgmt.repository;
+
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.model.DocumentContent;
+import com.example.docmgmt.service.DocumentContentService;
+import com.example.docmgmt.util.HashUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Insert throughput of the two write paths for documents, with JDBC batching (batch size 50, as
+ * configured) against one statement per row, and of the batch import step including the stored
+ * texts the rows reference. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class DocumentInsertBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentInsertBenchmarkTest.class);
+
+    private static final int ROWS = 20_000;
+    private static final int WARMUP_ROWS = 2_000;
+    private static final int JDBC_BATCH_SIZE = 50;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentContentRepository documentContentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private DocumentContent body;
+    // New texts are committed in their own transaction and outlive the test, so every run stores different ones
+    private int textRun;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        body = documentContentRepository.saveAndFlush(new DocumentContent(HashUtil.sha256Hex("benchmark"), "benchmark"));
+    }
+
+    @Test
+    void testQueueListenerSaveAll() {
+        // DocumentQueueListener stores each consumed batch (100 messages by default) with one saveAll
+        Result batched = compare("queue listener saveAll", 100, documentRepository::saveAll);
+
+        assertTrue(batched.statements() < ROWS / 10, "inserts are not batched: " + batched.statements());
+    }
+
+    @Test
+    void testBatchImportChunk() {
+        // JpaItemWriter persists every item of a chunk (500 by default) and flushes once
+        Result batched = compare("batch import chunk", 500, chunk -> chunk.forEach(entityManager::persist));
+
+        assertTrue(batched.statements() < ROWS / 10, "inserts are not batched: " + batched.statements());
+    }
+
+    @Test
+    void testBatchImportChunkWithContent() {
+        // The import step stores the text of every row, then persists the rows that reference it
+        DocumentContentService contentService = new DocumentContentService(documentContentRepository, transactionManager);
+        Consumer<List<Document>> perRow = chunk -> {
+            chunk.forEach(contentService::attach);
+            chunk.forEach(entityManager::persist);
+        };
+        Consumer<List<Document>> perChunk = chunk -> {
+            contentService.attachAll(chunk);
+            chunk.forEach(entityManager::persist);
+        };
+        run(JDBC_BATCH_SIZE, 500, WARMUP_ROWS, this::documentsWithText, perRow);
+        run(JDBC_BATCH_SIZE, 500, WARMUP_ROWS, this::documentsWithText, perChunk);
+
+        Result single = run(JDBC_BATCH_SIZE, 500, ROWS, this::documentsWithText, perRow);
+        Result batched = run(JDBC_BATCH_SIZE, 500, ROWS, this::documentsWithText, perChunk);
+        logger.info("batch import chunk with text: {} rows/s attaching per row ({} statements), {} rows/s per chunk ({} statements), {}x",
+                Math.round(single.rowsPerSecond()), single.statements(),
+                Math.round(batched.rowsPerSecond()), batched.statements(),
+                String.format("%.1f", batched.rowsPerSecond() / single.rowsPerSecond()));
+
+        assertTrue(batched.statements() < ROWS / 10, "text inserts are not batched: " + batched.statements());
+    }
+
+    private Result compare(String path, int chunkSize, Consumer<List<Document>> write) {
+        run(1, chunkSize, WARMUP_ROWS, this::documents, write);
+        run(JDBC_BATCH_SIZE, chunkSize, WARMUP_ROWS, this::documents, write);
+
+        Result single = run(1, chunkSize, ROWS, this::documents, write);
+        Result batched = run(JDBC_BATCH_SIZE, chunkSize, ROWS, this::documents, write);
+        logger.info("{}: {} rows/s with one INSERT per row ({} statements), {} rows/s batched ({} statements), {}x",
+                path, Math.round(single.rowsPerSecond()), single.statements(),
+                Math.round(batched.rowsPerSecond()), batched.statements(),
+                String.format("%.1f", batched.rowsPerSecond() / single.rowsPerSecond()));
+        return batched;
+    }
+
+    private Result run(int jdbcBatchSize, int chunkSize, int rows,
+                       BiFunction<Integer, Integer, List<Document>> source, Consumer<List<Document>> write) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+        textRun++;
+        statistics.clear();
+        long started = System.nanoTime();
+        for (int written = 0; written < rows; written += chunkSize) {
+            write.accept(source.apply(written, chunkSize));
+            entityManager.flush();
+            entityManager.clear();
+        }
+        double seconds = (System.nanoTime() - started) / 1_000_000_000d;
+        return new Result(rows / seconds, statistics.getPrepareStatementCount());
+    }
+
+    private List<Document> documents(int first, int count) {
+        List<Document> documents = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            Document document = new Document();
+            document.setTitle("Benchmark document " + i);
+            document.setAuthor("author" + (i % 10));
+            document.setType("PDF");
+            document.setContentHash(body.getContentHash());
+            document.setBody(body);
+            documents.add(document);
+        }
+        return documents;
+    }
+
+    // Rows as read from an import file: text but no hash, one in ten repeats the text of an earlier row
+    private List<Document> documentsWithText(int first, int count) {
+        List<Document> documents = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            Document document = new Document();
+            document.setTitle("Benchmark document " + i);
+            document.setAuthor("author" + (i % 10));
+            document.setType("CSV");
+            document.setContent("Benchmark text " + textRun + "-" + (i % 10 == 9 ? i - 1 : i));
+            documents.add(document);
+        }
+        return documents;
+    }
+
+    private record Result(double rowsPerSecond, long statements) {
+    }
+}
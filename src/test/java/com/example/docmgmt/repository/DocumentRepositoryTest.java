@@ -0,0 +1,80 @@
+package com.example.docmgmt.repository;
+
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.model.DocumentDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class DocumentRepositoryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    private List<Document> stored;
+
+    @BeforeEach
+    void setUp() {
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Document document = new Document();
+            document.setTitle("Document " + i);
+            document.setAuthor(i % 2 == 0 ? "alice" : "bob");
+            document.setType("PDF");
+            // Groups of three share a timestamp, so pages break inside runs of equal createdAt
+            document.setCreatedAt(BASE.plusMinutes(i / 3));
+            documents.add(document);
+        }
+        stored = documentRepository.saveAllAndFlush(documents);
+    }
+
+    @Test
+    void testCursorPagesVisitEveryRowOnceNewestFirst() {
+        List<Long> expected = stored.stream()
+                .sorted(Comparator.comparing(Document::getCreatedAt).thenComparing(Document::getId).reversed())
+                .map(Document::getId)
+                .toList();
+
+        assertEquals(expected, pageThrough(null, 4));
+    }
+
+    @Test
+    void testCursorPagesKeepTheFilter() {
+        List<Long> expected = stored.stream()
+                .filter(document -> "bob".equals(document.getAuthor()))
+                .sorted(Comparator.comparing(Document::getCreatedAt).thenComparing(Document::getId).reversed())
+                .map(Document::getId)
+                .toList();
+
+        assertEquals(expected, pageThrough("bob", 5));
+    }
+
+    private List<Long> pageThrough(String author, int pageSize) {
+        List<Long> ids = new ArrayList<>();
+        LocalDateTime createdAt = null;
+        Long id = null;
+        List<DocumentDTO> page;
+        do {
+            page = documentRepository.findSummariesAfter(author, null, createdAt, id, pageSize);
+            for (DocumentDTO row : page) {
+                ids.add(row.getId());
+            }
+            if (!page.isEmpty()) {
+                createdAt = page.get(page.size() - 1).getCreatedAt();
+                id = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == pageSize);
+        return ids;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.docmgmt.repository;
+
+import com.example.docmgmt.model.SearchOutboxEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class SearchOutboxRepositoryTest {
+
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Test
+    void testClaimPendingLocksOldestEventsBelowMaxAttempts() {
+        SearchOutboxEvent first = new SearchOutboxEvent(1L);
+        SearchOutboxEvent exhausted = new SearchOutboxEvent(2L);
+        exhausted.setAttempts(5);
+        SearchOutboxEvent second = new SearchOutboxEvent(3L);
+        SearchOutboxEvent third = new SearchOutboxEvent(4L);
+        searchOutboxRepository.saveAllAndFlush(List.of(first, exhausted, second, third));
+
+        List<SearchOutboxEvent> claimed = searchOutboxRepository.claimPending(5, PageRequest.of(0, 2));
+
+        assertEquals(List.of(first.getId(), second.getId()), claimed.stream().map(SearchOutboxEvent::getId).toList());
+    }
+}
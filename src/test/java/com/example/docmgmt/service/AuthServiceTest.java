@@ -1,8 +1,12 @@
 package com.example.docmgmt.service;
 
+import com.example.docmgmt.model.JwtResponse;
 import com.example.docmgmt.model.User;
 import com.example.docmgmt.repository.UserRepository;
 import com.example.docmgmt.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.impl.DefaultClaims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,9 +14,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Date;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,6 +41,12 @@ public class AuthServiceTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private TokenStore tokenStore;
+
     @InjectMocks
     private AuthService authService;
 
@@ -58,6 +71,32 @@ public class AuthServiceTest {
         verify(userRepository, times(1)).save(any(User.class));
     }
 
+    @Test
+    void testChangeRole_EvictsCachedUser() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+
+        authService.changeRole("testuser", "ADMIN");
+
+        assertEquals("ADMIN", user.getRole());
+        verify(userRepository).save(user);
+        verify(userCache).removeUserFromCache("testuser");
+    }
+
+    @Test
+    void testChangeRole_RejectsUnknownRole() {
+        assertThrows(IllegalArgumentException.class, () -> authService.changeRole("testuser", "ROLE_ADMIN"));
+        assertThrows(IllegalArgumentException.class, () -> authService.changeRole("testuser", " "));
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void testChangeRole_UnknownUser() {
+        when(userRepository.findByUsername("nobody")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> authService.changeRole("nobody", "ADMIN"));
+        verify(userCache, never()).removeUserFromCache(any());
+    }
+
     @Test
     void testLogin_Success() {
         UserDetails userDetails = org.springframework.security.core.userdetails.User
@@ -68,11 +107,59 @@ public class AuthServiceTest {
 
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(jwtUtil.generateToken(any(UserDetails.class))).thenReturn("test-token");
+        when(tokenStore.issueRefreshToken("testuser")).thenReturn("refresh-token");
 
-        String token = authService.login("testuser", "password");
+        JwtResponse tokens = authService.login("testuser", "password");
 
-        assertEquals("test-token", token);
+        assertEquals("test-token", tokens.getToken());
+        assertEquals("refresh-token", tokens.getRefreshToken());
         verify(authenticationManager, times(1)).authenticate(any());
         verify(jwtUtil, times(1)).generateToken(userDetails);
     }
+
+    @Test
+    void testRefresh_SkipsPasswordCheck() {
+        when(tokenStore.consumeRefreshToken("refresh-token")).thenReturn(Optional.of("testuser"));
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(jwtUtil.generateToken(any(UserDetails.class))).thenReturn("new-token");
+        when(tokenStore.issueRefreshToken("testuser")).thenReturn("new-refresh-token");
+
+        JwtResponse tokens = authService.refresh("refresh-token");
+
+        assertEquals("new-token", tokens.getToken());
+        assertEquals("new-refresh-token", tokens.getRefreshToken());
+        verifyNoInteractions(authenticationManager, passwordEncoder);
+    }
+
+    @Test
+    void testRefresh_UnknownToken() {
+        when(tokenStore.consumeRefreshToken("used-token")).thenReturn(Optional.empty());
+
+        assertThrows(BadCredentialsException.class, () -> authService.refresh("used-token"));
+        verify(jwtUtil, never()).generateToken(any());
+    }
+
+    @Test
+    void testLogout_RevokesAccessAndRefreshToken() {
+        Claims claims = new DefaultClaims();
+        claims.setId("token-id");
+        // Claims keep exp in whole seconds
+        Date expiresAt = new Date((System.currentTimeMillis() / 1000 + 60) * 1000);
+        claims.setExpiration(expiresAt);
+        when(jwtUtil.verify("Bearer access-token")).thenReturn(claims);
+
+        authService.logout("Bearer access-token", "refresh-token");
+
+        verify(tokenStore).revokeAccessToken("token-id", expiresAt);
+        verify(tokenStore).revokeRefreshToken("refresh-token");
+    }
+
+    @Test
+    void testLogout_ExpiredAccessToken() {
+        when(jwtUtil.verify("Bearer expired-token")).thenThrow(new ExpiredJwtException(null, null, "expired"));
+
+        authService.logout("Bearer expired-token", null);
+
+        verify(tokenStore, never()).revokeAccessToken(any(), any());
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,146 @@
+package com.example.docmgmt.service;
+
+import com.example.docmgmt.messaging.DocumentPublisher;
+import com.example.docmgmt.model.BulkEntryResult;
+import com.example.docmgmt.model.BulkIngestJob;
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.model.SpooledFile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BulkIngestServiceTest {
+
+    @Mock
+    private DocumentService documentService;
+
+    @Mock
+    private DocumentContentService documentContentService;
+
+    @Mock
+    private DocumentPublisher documentPublisher;
+
+    @TempDir
+    Path spoolDir;
+
+    private BulkIngestService bulkIngestService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FileSpoolService fileSpoolService = new FileSpoolService(spoolDir.toString());
+        bulkIngestService = new BulkIngestService(documentService, documentContentService, fileSpoolService, documentPublisher,
+                new ObjectMapper(), new SyncTaskExecutor(), new SyncTaskExecutor(), 10, 100, 1024, Duration.ofHours(1));
+    }
+
+    @Test
+    void testSubmitZipArchive_ExtractsAndPublishesOneBatch() throws Exception {
+        MockMultipartFile archive = new MockMultipartFile("archive", "docs.zip", "application/zip",
+                zip(Map.of("reports/a.txt", "first", "b.txt", "second")));
+        String manifest = "{\"reports/a.txt\":{\"author\":\"John\",\"type\":\"TXT\"}}";
+
+        when(documentContentService.isKnown(any())).thenReturn(false);
+        when(documentService.extractDocument(any(SpooledFile.class), any(), any())).thenAnswer(invocation -> {
+            Document document = new Document();
+            document.setTitle(invocation.getArgument(1));
+            document.setAuthor(((Map<String, String>) invocation.getArgument(2)).get("author"));
+            return document;
+        });
+
+        BulkIngestJob job = bulkIngestService.submit(null, archive, manifest, "{\"type\":\"DEFAULT\"}");
+
+        assertEquals(BulkIngestJob.Status.COMPLETED, job.getStatus());
+        assertEquals(2, job.getEntries().size());
+        job.getEntries().forEach(entry -> assertEquals(BulkEntryResult.Status.PUBLISHED, entry.getStatus()));
+        verify(documentPublisher, times(1)).publishBatch(argThat((List<Document> batch) -> batch.size() == 2));
+        verify(documentService).extractDocument(any(SpooledFile.class), eq("a.txt"),
+                argThat((Map<String, String> metadata) -> "John".equals(metadata.get("author")) && "TXT".equals(metadata.get("type"))));
+    }
+
+    @Test
+    void testSubmitFiles_DuplicateSkipsExtraction() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("files", "a.txt", "text/plain", "first".getBytes(StandardCharsets.UTF_8));
+
+        when(documentContentService.isKnown(any())).thenReturn(true);
+        when(documentService.buildDocument(eq("a.txt"), any(), any())).thenReturn(new Document());
+
+        BulkIngestJob job = bulkIngestService.submit(List.of(file), null, null, null);
+
+        assertEquals(BulkEntryResult.Status.DUPLICATE, job.getEntries().get(0).getStatus());
+        verify(documentService, never()).extractDocument(any(), any(), any());
+        verify(documentPublisher, times(1)).publishBatch(anyList());
+    }
+
+    @Test
+    void testSubmitFiles_ExtractionFailureIsReportedPerEntry() throws Exception {
+        MockMultipartFile good = new MockMultipartFile("files", "good.txt", "text/plain", "good".getBytes(StandardCharsets.UTF_8));
+        MockMultipartFile bad = new MockMultipartFile("files", "bad.txt", "text/plain", "bad".getBytes(StandardCharsets.UTF_8));
+
+        when(documentContentService.isKnown(any())).thenReturn(false);
+        when(documentService.extractDocument(any(SpooledFile.class), eq("good.txt"), any())).thenReturn(new Document());
+        when(documentService.extractDocument(any(SpooledFile.class), eq("bad.txt"), any())).thenThrow(new IllegalStateException("corrupt"));
+
+        BulkIngestJob job = bulkIngestService.submit(List.of(good, bad), null, null, null);
+
+        assertEquals(BulkIngestJob.Status.COMPLETED_WITH_ERRORS, job.getStatus());
+        assertEquals(BulkEntryResult.Status.PUBLISHED, job.getEntries().get(0).getStatus());
+        assertEquals(BulkEntryResult.Status.FAILED, job.getEntries().get(1).getStatus());
+        assertEquals("corrupt", job.getEntries().get(1).getError());
+    }
+
+    @Test
+    void testSubmit_RejectsUnsupportedArchive() {
+        MockMultipartFile archive = new MockMultipartFile("archive", "docs.rar", "application/octet-stream", new byte[]{1});
+
+        assertThrows(IllegalArgumentException.class, () -> bulkIngestService.submit(null, archive, null, null));
+    }
+
+    @Test
+    void testSubmit_RejectsArchiveThatExpandsPastTheLimit() throws Exception {
+        // Well under a kilobyte compressed, four kilobytes once extracted
+        MockMultipartFile archive = new MockMultipartFile("archive", "bomb.zip", "application/zip",
+                zip(Map.of("a.txt", "a".repeat(600), "b.txt", "b".repeat(600), "c.txt", "c".repeat(2900))));
+
+        assertThrows(IllegalArgumentException.class, () -> bulkIngestService.submit(null, archive, null, null));
+
+        // The entries spooled before the limit was hit are deleted again
+        try (Stream<Path> spooled = Files.list(spoolDir)) {
+            assertEquals(0, spooled.count());
+        }
+        verifyNoInteractions(documentPublisher);
+    }
+
+    private static byte[] zip(Map<String, String> entries) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
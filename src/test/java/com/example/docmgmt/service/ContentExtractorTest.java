@@ -0,0 +1,65 @@
+package com.example.docmgmt.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ContentExtractorTest {
+
+    private static ContentExtractor contentExtractor;
+
+    @BeforeAll
+    static void setUp() {
+        contentExtractor = new ContentExtractor(true);
+        contentExtractor.warmUp();
+    }
+
+    @Test
+    void testExtractPlainText() throws Exception {
+        Path file = Files.createTempFile("upload-", ".txt");
+        try {
+            Files.writeString(file, "hello world");
+
+            String content = contentExtractor.extract(file, "test.txt");
+
+            assertTrue(content.contains("hello world"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testExtractIsSafeAcrossThreads() throws Exception {
+        Path file = Files.createTempFile("upload-", ".html");
+        try {
+            Files.writeString(file, "<html><body><p>shared parser</p></body></html>");
+
+            Thread[] workers = new Thread[4];
+            boolean[] results = new boolean[workers.length];
+            for (int i = 0; i < workers.length; i++) {
+                int index = i;
+                workers[i] = new Thread(() -> {
+                    try {
+                        results[index] = contentExtractor.extract(file, "test.html").contains("shared parser");
+                    } catch (Exception e) {
+                        results[index] = false;
+                    }
+                });
+                workers[i].start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+
+            for (boolean result : results) {
+                assertTrue(result);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
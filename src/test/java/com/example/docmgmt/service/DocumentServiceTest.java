@@ -1,7 +1,11 @@
 package com.example.docmgmt.service;
 
+import com.example.docmgmt.messaging.DocumentPublisher;
+import com.example.docmgmt.model.CursorPage;
 import com.example.docmgmt.model.Document;
 import com.example.docmgmt.model.DocumentDTO;
+import com.example.docmgmt.model.SliceResult;
+import com.example.docmgmt.model.SpooledFile;
 import com.example.docmgmt.repository.DocumentRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -10,16 +14,26 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,42 +43,157 @@ public class DocumentServiceTest {
     private DocumentRepository documentRepository;
 
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private DocumentPublisher documentPublisher;
 
     @Spy
     private ObjectMapper objectMapper = new ObjectMapper();
 
+    @Mock
+    private FileSpoolService fileSpoolService;
+
+    @Mock
+    private ContentExtractor contentExtractor;
+
+    @Mock
+    private DocumentContentService documentContentService;
+
     @InjectMocks
     private DocumentService documentService;
 
     @Test
     void testGetDocuments() {
-        Document doc = new Document();
-        doc.setId(1L);
-        doc.setTitle("Test Doc");
-        doc.setAuthor("John Doe");
-        doc.setType("PDF");
+        DocumentDTO dto = new DocumentDTO(1L, "Test Doc", "John Doe", "PDF");
 
-        Page<Document> page = new PageImpl<>(List.of(doc));
-        when(documentRepository.findByAuthorAndType(any(), any(), any(PageRequest.class))).thenReturn(page);
+        Page<DocumentDTO> page = new PageImpl<>(List.of(dto));
+        when(documentRepository.findSummaries(any(), any(), any(PageRequest.class))).thenReturn(page);
 
         Page<DocumentDTO> result = documentService.getDocuments("John Doe", "PDF", 0, 10, "createdAt,desc");
 
         assertEquals(1, result.getTotalElements());
         assertEquals("Test Doc", result.getContent().get(0).getTitle());
-        verify(documentRepository, times(1)).findByAuthorAndType(eq("John Doe"), eq("PDF"), any(PageRequest.class));
+        verify(documentRepository, times(1)).findSummaries(eq("John Doe"), eq("PDF"), any(PageRequest.class));
+    }
+
+    @Test
+    void testGetDocumentSliceSkipsCountUnlessTotalRequested() {
+        DocumentDTO dto = new DocumentDTO(1L, "Test Doc", "John Doe", "PDF");
+        when(documentRepository.findSummarySlice(eq("John Doe"), isNull(), any(PageRequest.class)))
+                .thenReturn(new SliceImpl<>(List.of(dto), PageRequest.of(0, 1), true));
+
+        SliceResult<DocumentDTO> withoutTotal = documentService.getDocumentSlice("John Doe", null, 0, 1, "createdAt,desc", false);
+
+        assertTrue(withoutTotal.isHasNext());
+        assertNull(withoutTotal.getApproximateTotal());
+        verify(documentRepository, never()).countUpTo(any(), any(), anyInt());
+
+        when(documentRepository.countUpTo("John Doe", null, 10_000)).thenReturn(42L);
+
+        SliceResult<DocumentDTO> withTotal = documentService.getDocumentSlice("John Doe", null, 0, 1, "createdAt,desc", true);
+
+        assertEquals(42L, withTotal.getApproximateTotal());
+        assertTrue(withTotal.getTotalExact());
+    }
+
+    @Test
+    void testGetDocumentsRejectsUnknownSortField() {
+        assertThrows(IllegalArgumentException.class,
+                () -> documentService.getDocuments(null, null, 0, 10, "content,asc"));
+        // No index orders by title, so it is not offered either
+        assertThrows(IllegalArgumentException.class,
+                () -> documentService.getDocuments(null, null, 0, 10, "title,asc"));
+        verifyNoInteractions(documentRepository);
+    }
+
+    @Test
+    void testSortTieBreakerFollowsPrimaryDirection() {
+        when(documentRepository.findSummaries(any(), any(), any(PageRequest.class))).thenReturn(Page.empty());
+
+        documentService.getDocuments(null, null, 0, 10, "createdAt,desc");
+
+        verify(documentRepository).findSummaries(isNull(), isNull(), argThat(pageRequest ->
+                pageRequest.getSort().equals(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")))));
+    }
+
+    @Test
+    void testOffsetListingsRejectOversizedPages() {
+        assertThrows(IllegalArgumentException.class,
+                () -> documentService.getDocuments(null, null, 0, 101, "createdAt,desc"));
+        assertThrows(IllegalArgumentException.class,
+                () -> documentService.getDocumentSlice(null, null, 0, 5000, "createdAt,desc", false));
+        verifyNoInteractions(documentRepository);
+    }
+
+    @Test
+    void testGetDocumentsAfterReturnsCursorToNextPage() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        List<DocumentDTO> rows = List.of(
+                new DocumentDTO(3L, "c", "John", "PDF", createdAt),
+                new DocumentDTO(2L, "b", "John", "PDF", createdAt),
+                new DocumentDTO(1L, "a", "John", "PDF", createdAt.minusDays(1)));
+        when(documentRepository.findSummariesAfter(null, null, null, null, 3)).thenReturn(rows);
+
+        CursorPage<DocumentDTO> first = documentService.getDocumentsAfter(null, null, null, 2);
+
+        assertEquals(2, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+
+        when(documentRepository.findSummariesAfter(null, null, createdAt, 2L, 3)).thenReturn(List.of(rows.get(2)));
+
+        CursorPage<DocumentDTO> second = documentService.getDocumentsAfter(null, null, first.getNextCursor(), 2);
+
+        assertEquals(1, second.getItems().size());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void testGetDocumentsAfterRejectsInvalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> documentService.getDocumentsAfter(null, null, "not-a-cursor", 10));
     }
 
     @Test
     void testProcessDocumentAsync() throws Exception {
-        byte[] fileBytes = "hello world".getBytes();
+        Path spooledFile = Files.createTempFile("upload-", ".txt");
+        Files.writeString(spooledFile, "hello world");
         String filename = "test.txt";
         String metadataJson = "{\"author\":\"Test Author\",\"type\":\"TXT\"}";
 
-        doNothing().when(rabbitTemplate).convertAndSend(eq("documentQueue"), any(Document.class));
+        when(contentExtractor.extract(spooledFile, filename)).thenReturn("hello world");
+        doNothing().when(documentPublisher).publish(any(Document.class));
+
+        try {
+            documentService.processDocumentAsync(new SpooledFile(spooledFile, "abc123", 11), filename, metadataJson);
+        } finally {
+            Files.deleteIfExists(spooledFile);
+        }
+
+        verify(documentPublisher, times(1)).publish(argThat((Document document) -> "hello world".equals(document.getContent())));
+        verify(fileSpoolService, times(1)).discard(spooledFile);
+    }
+
+    @Test
+    void testLinkDuplicate_KnownContent() {
+        Path spooledFile = Path.of("upload-test.txt");
+        String metadataJson = "{\"author\":\"Test Author\",\"type\":\"TXT\"}";
+
+        when(documentContentService.isKnown("abc123")).thenReturn(true);
+
+        boolean linked = documentService.linkDuplicate(new SpooledFile(spooledFile, "abc123", 11), "test.txt", metadataJson);
+
+        assertTrue(linked);
+        verify(documentPublisher, times(1)).publish(
+                argThat((Document document) -> "abc123".equals(document.getContentHash()) && document.getContent() == null));
+        verify(fileSpoolService, times(1)).discard(spooledFile);
+        verifyNoInteractions(contentExtractor);
+    }
+
+    @Test
+    void testLinkDuplicate_UnknownContent() {
+        when(documentContentService.isKnown("abc123")).thenReturn(false);
 
-        documentService.processDocumentAsync(fileBytes, filename, metadataJson);
+        boolean linked = documentService.linkDuplicate(new SpooledFile(Path.of("upload-test.txt"), "abc123", 11), "test.txt", "{}");
 
-        verify(rabbitTemplate, times(1)).convertAndSend(eq("documentQueue"), any(Document.class));
+        assertFalse(linked);
+        verifyNoInteractions(documentPublisher, fileSpoolService);
     }
-} 
\ No newline at end of file
+}
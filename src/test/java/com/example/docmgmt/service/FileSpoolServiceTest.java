@@ -0,0 +1,44 @@
+package com.example.docmgmt.service;
+
+import com.example.docmgmt.model.SpooledFile;
+import com.example.docmgmt.util.HashUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSpoolServiceTest {
+
+    @TempDir
+    Path spoolDir;
+
+    @Test
+    void testSpoolWritesFileAndHashesContent() throws Exception {
+        FileSpoolService fileSpoolService = new FileSpoolService(spoolDir.toString());
+        MockMultipartFile file = new MockMultipartFile("file", "../../etc/report.pdf", "application/pdf",
+                "hello world".getBytes(StandardCharsets.UTF_8));
+
+        SpooledFile spooled = fileSpoolService.spool(file);
+
+        assertEquals(spoolDir, spooled.getPath().getParent());
+        assertTrue(spooled.getPath().getFileName().toString().endsWith(".pdf"));
+        assertEquals("hello world", Files.readString(spooled.getPath()));
+        assertEquals(HashUtil.sha256Hex("hello world"), spooled.getContentHash());
+        assertEquals(11, spooled.getSize());
+    }
+
+    @Test
+    void testDiscardRemovesSpooledFile() throws Exception {
+        FileSpoolService fileSpoolService = new FileSpoolService(spoolDir.toString());
+        SpooledFile spooled = fileSpoolService.spool(new MockMultipartFile("file", "a.txt", "text/plain", new byte[]{1, 2, 3}));
+
+        fileSpoolService.discard(spooled.getPath());
+
+        assertFalse(Files.exists(spooled.getPath()));
+    }
+}
@@ -1,17 +1,25 @@
 package com.example.docmgmt.service;
 
+import com.example.docmgmt.cache.SearchCacheVersion;
 import com.example.docmgmt.model.Document;
-import com.example.docmgmt.model.ElasticDocument;
+import com.example.docmgmt.model.SearchResultDTO;
+import com.example.docmgmt.model.SliceResult;
+import com.example.docmgmt.repository.DocumentRepository;
 import com.example.docmgmt.repository.ElasticDocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,23 +28,89 @@ public class QnAServiceTest {
     @Mock
     private ElasticDocumentRepository elasticRepository;
 
-    @InjectMocks
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private SearchCacheVersion searchCacheVersion;
+
     private QnAService qnAService;
 
+    @BeforeEach
+    void setUp() {
+        qnAService = new QnAService(elasticRepository, documentRepository, new ConcurrentMapCacheManager(), searchCacheVersion);
+    }
+
     @Test
    public void testSearchDocuments() {
-        ElasticDocument edoc = new ElasticDocument();
-        edoc.setTitle("Test Doc");
-        edoc.setAuthor("John Doe");
-        edoc.setContent("This is a test document.");
-        edoc.setType("PDF");
+        SearchResultDTO hit = new SearchResultDTO("1", "Test Doc", "John Doe", "PDF", null, 2.1f,
+                List.of("This is a <em>test</em> document."));
 
-        when(elasticRepository.findByContentContainingIgnoreCase("test")).thenReturn(List.of(edoc));
+        when(elasticRepository.searchRanked("test", 0, 10)).thenReturn(new SliceResult<>(List.of(hit), 0, 10, false, 1L, true));
 
-        List<Document> result = qnAService.searchDocuments("test");
+        SliceResult<SearchResultDTO> result = qnAService.searchDocuments("test", 0, 10);
 
-        assertEquals(1, result.size());
-        assertEquals("Test Doc", result.get(0).getTitle());
-        verify(elasticRepository, times(1)).findByContentContainingIgnoreCase("test");
+        assertEquals(1, result.getItems().size());
+        assertEquals("Test Doc", result.getItems().get(0).getTitle());
+        verify(elasticRepository, times(1)).searchRanked("test", 0, 10);
+        verifyNoInteractions(documentRepository);
+    }
+
+    @Test
+    public void testSearchDocumentsFallsBackToDatabaseWhenElasticsearchFails() {
+        Document doc = new Document();
+        doc.setId(7L);
+        doc.setTitle("Test Doc");
+        doc.setContent("text before the <em>test</em> keyword");
+        doc.setCreatedAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+
+        when(elasticRepository.searchRanked("test", 1, 10))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        when(documentRepository.searchFullText("test", 10, 11)).thenReturn(List.of(doc));
+
+        SliceResult<SearchResultDTO> result = qnAService.searchDocuments("test", 1, 10);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals("7", result.getItems().get(0).getId());
+        assertEquals("text before the <em>test</em> keyword", result.getItems().get(0).getHighlights().get(0));
+        assertFalse(result.isHasNext());
+    }
+
+    @Test
+    public void testFallbackResultsAreNotCached() {
+        Document doc = new Document();
+        doc.setId(7L);
+        doc.setTitle("Test Doc");
+        doc.setCreatedAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+        SliceResult<SearchResultDTO> ranked = new SliceResult<>(List.of(), 0, 10, false, 0L, true);
+        when(elasticRepository.searchRanked("test", 0, 10))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenReturn(ranked);
+        when(documentRepository.searchFullText("test", 0, 11)).thenReturn(List.of(doc));
+
+        qnAService.searchDocuments("test", 0, 10);
+        SliceResult<SearchResultDTO> recovered = qnAService.searchDocuments("test", 0, 10);
+        SliceResult<SearchResultDTO> cached = qnAService.searchDocuments("test", 0, 10);
+
+        assertEquals(ranked, recovered);
+        assertEquals(ranked, cached);
+        verify(elasticRepository, times(2)).searchRanked("test", 0, 10);
+    }
+
+    @Test
+    public void testSearchDocumentsNormalisesQuery() {
+        when(elasticRepository.searchRanked("invoice total", 0, 10))
+                .thenReturn(new SliceResult<>(List.of(), 0, 10, false, 0L, true));
+
+        qnAService.searchDocuments("  Invoice \t TOTAL ", 0, 10);
+
+        verify(elasticRepository).searchRanked("invoice total", 0, 10);
+    }
+
+    @Test
+    public void testSearchDocumentsRejectsPagesBeyondResultWindow() {
+        assertThrows(IllegalArgumentException.class, () -> qnAService.searchDocuments("test", 100, 10));
+        assertThrows(IllegalArgumentException.class, () -> qnAService.searchDocuments("test", 0, 500));
+        verifyNoInteractions(elasticRepository, documentRepository);
     }
-} 
\ No newline at end of file
+}
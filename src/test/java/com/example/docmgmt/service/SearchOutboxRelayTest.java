@@ -0,0 +1,150 @@
+package com.example.docmgmt.service;
+
+import com.example.docmgmt.cache.SearchCacheVersion;
+import com.example.docmgmt.model.Document;
+import com.example.docmgmt.model.DocumentContent;
+import com.example.docmgmt.model.ElasticDocument;
+import com.example.docmgmt.model.SearchOutboxEvent;
+import com.example.docmgmt.repository.DocumentRepository;
+import com.example.docmgmt.repository.SearchOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SearchOutboxRelayTest {
+
+    @Mock
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Mock
+    private SearchCacheVersion searchCacheVersion;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SearchOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        when(elasticsearchOperations.withRefreshPolicy(RefreshPolicy.WAIT_UNTIL)).thenReturn(elasticsearchOperations);
+        relay = new SearchOutboxRelay(searchOutboxRepository, documentRepository, elasticsearchOperations,
+                searchCacheVersion, new SimpleMeterRegistry(), transactionManager, 10, 5);
+    }
+
+    @Test
+    void testBatchIsIndexedInOneBulkRequestAndDeleted() {
+        when(searchOutboxRepository.claimPending(eq(5), any(Pageable.class)))
+                .thenReturn(List.of(event(1, 41), event(2, 42), event(3, 41)));
+        when(documentRepository.findWithBodyByIdIn(anyCollection())).thenReturn(List.of(document(41), document(42)));
+
+        assertEquals(3, relay.relayBatch());
+
+        // Document 41 has two events but is written once
+        verify(elasticsearchOperations).save(argThat((List<ElasticDocument> batch) -> batch.size() == 2),
+                eq(IndexCoordinates.of(ElasticDocument.INDEX_ALIAS)));
+        verify(searchOutboxRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+        verify(searchOutboxRepository, never()).recordFailure(anyCollection(), any());
+        verify(searchCacheVersion).bump();
+    }
+
+    @Test
+    void testRejectedDocumentStaysPendingWithItsError() {
+        when(searchOutboxRepository.claimPending(eq(5), any(Pageable.class)))
+                .thenReturn(List.of(event(1, 41), event(2, 42)));
+        when(documentRepository.findWithBodyByIdIn(anyCollection())).thenReturn(List.of(document(41), document(42)));
+        doThrow(new BulkFailureException("Bulk indexing has failures", Map.of("42", new BulkFailureException.FailureDetails(400, "mapper_parsing_exception"))))
+                .when(elasticsearchOperations).save(anyList(), any(IndexCoordinates.class));
+
+        assertEquals(1, relay.relayBatch());
+
+        verify(searchOutboxRepository).deleteAllByIdInBatch(List.of(1L));
+        verify(searchOutboxRepository).recordFailure(List.of(2L), "mapper_parsing_exception");
+    }
+
+    @Test
+    void testRequestRefusedAsAWholeIsSplitUntilTheBadDocumentIsFound() {
+        when(searchOutboxRepository.claimPending(eq(5), any(Pageable.class)))
+                .thenReturn(List.of(event(1, 41), event(2, 42), event(3, 43)));
+        when(documentRepository.findWithBodyByIdIn(anyCollection())).thenReturn(List.of(document(41), document(42), document(43)));
+        // Any request containing document 42 is refused outright
+        doThrow(new UncategorizedElasticsearchException("request entity too large", 413, null, null))
+                .when(elasticsearchOperations).save(argThat((List<ElasticDocument> batch) -> batch != null
+                        && batch.stream().anyMatch(doc -> "42".equals(doc.getId()))), any(IndexCoordinates.class));
+
+        assertEquals(2, relay.relayBatch());
+
+        verify(searchOutboxRepository).deleteAllByIdInBatch(List.of(1L, 3L));
+        verify(searchOutboxRepository).recordFailure(List.of(2L), "request entity too large");
+    }
+
+    @Test
+    void testEventsStayPendingWhileSearchIsOverloaded() {
+        when(searchOutboxRepository.claimPending(eq(5), any(Pageable.class)))
+                .thenReturn(List.of(event(1, 41), event(2, 42)));
+        when(documentRepository.findWithBodyByIdIn(anyCollection())).thenReturn(List.of(document(41), document(42)));
+        doThrow(new UncategorizedElasticsearchException("es_rejected_execution_exception", 429, null, null))
+                .when(elasticsearchOperations).save(anyList(), any(IndexCoordinates.class));
+
+        relay.relay();
+
+        // Not split and not counted against the documents
+        verify(elasticsearchOperations, times(1)).save(anyList(), any(IndexCoordinates.class));
+        verify(searchOutboxRepository, never()).recordFailure(anyCollection(), any());
+    }
+
+    @Test
+    void testEventsStayPendingWhileSearchIsDown() {
+        when(searchOutboxRepository.claimPending(eq(5), any(Pageable.class)))
+                .thenReturn(List.of(event(1, 41)));
+        when(documentRepository.findWithBodyByIdIn(anyCollection())).thenReturn(List.of(document(41)));
+        doThrow(new DataAccessResourceFailureException("Connection refused"))
+                .when(elasticsearchOperations).save(anyList(), any(IndexCoordinates.class));
+
+        relay.relay();
+
+        verify(searchOutboxRepository, never()).deleteAllByIdInBatch(anyCollection());
+        verify(searchOutboxRepository, never()).recordFailure(anyCollection(), any());
+        verifyNoInteractions(searchCacheVersion);
+    }
+
+    private static SearchOutboxEvent event(long id, long documentId) {
+        SearchOutboxEvent event = new SearchOutboxEvent(documentId);
+        event.setId(id);
+        event.setCreatedAt(LocalDateTime.now().minusSeconds(1));
+        return event;
+    }
+
+    private static Document document(long id) {
+        Document document = new Document();
+        document.setId(id);
+        document.setTitle("Title " + id);
+        document.setBody(new DocumentContent("hash-" + id, "content " + id));
+        return document;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.docmgmt.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenStoreTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private TokenStore tokenStore;
+
+    @BeforeEach
+    void setUp() {
+        tokenStore = new TokenStore(redisTemplate, listenerContainer, Duration.ofDays(14));
+    }
+
+    @Test
+    void testRevokedTokenIsCheckedWithoutRedis() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        Date expiresAt = new Date(System.currentTimeMillis() + 60_000);
+
+        tokenStore.revokeAccessToken("token-id", expiresAt);
+
+        assertTrue(tokenStore.isRevoked("token-id"));
+        assertFalse(tokenStore.isRevoked("other-id"));
+        verify(valueOperations).set(eq(TokenStore.REVOKED_PREFIX + "token-id"), eq(expiresAt.getTime()), any(Duration.class));
+        verify(redisTemplate).convertAndSend(TokenStore.REVOCATION_CHANNEL, "token-id:" + expiresAt.getTime());
+        verify(redisTemplate, never()).hasKey(anyString());
+    }
+
+    @Test
+    void testRevocationFromAnotherNodeIsMirrored() {
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+        doReturn(serializer).when(redisTemplate).getValueSerializer();
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        tokenStore.onMessage(new DefaultMessage(TokenStore.REVOCATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                serializer.serialize("token-id:" + expiresAt)), null);
+
+        assertTrue(tokenStore.isRevoked("token-id"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testResyncLoadsStoredRevocationsAndDropsExpiredOnes() {
+        long now = System.currentTimeMillis();
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenReturn(true, true, false);
+        when(cursor.next()).thenReturn(TokenStore.REVOKED_PREFIX + "live", TokenStore.REVOKED_PREFIX + "expired");
+        when(redisTemplate.scan(any())).thenReturn(cursor);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of(TokenStore.REVOKED_PREFIX + "live", TokenStore.REVOKED_PREFIX + "expired")))
+                .thenReturn(List.of(now + 60_000, now - 1));
+
+        tokenStore.resyncRevocations();
+
+        assertTrue(tokenStore.isRevoked("live"));
+        assertFalse(tokenStore.isRevoked("expired"));
+    }
+
+    @Test
+    void testMirrorIsKeptWhenRedisIsDown() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        tokenStore.revokeAccessToken("token-id", new Date(System.currentTimeMillis() + 60_000));
+        when(redisTemplate.scan(any())).thenThrow(new RedisConnectionFailureException("down"));
+
+        tokenStore.resyncRevocations();
+
+        assertTrue(tokenStore.isRevoked("token-id"));
+    }
+}
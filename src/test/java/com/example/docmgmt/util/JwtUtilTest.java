@@ -0,0 +1,68 @@
+package com.example.docmgmt.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilTest {
+
+    private static final String SECRET = "0123456789abcdef".repeat(4);
+
+    private JwtUtil jwtUtil;
+
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 60_000L, "Bearer", "Authorization", 100);
+        userDetails = User.withUsername("testuser").password("encoded").roles("EDITOR").build();
+    }
+
+    @Test
+    void testGeneratedTokenCarriesAuthorities() {
+        String token = jwtUtil.generateToken(userDetails);
+
+        assertEquals("testuser", jwtUtil.extractUsername(token));
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_EDITOR")), jwtUtil.extractAuthorities(token));
+        assertTrue(jwtUtil.validateToken(token, userDetails));
+    }
+
+    @Test
+    void testVerifyReturnsSameClaimsForRepeatedToken() {
+        String token = jwtUtil.generateToken(userDetails);
+
+        Claims first = jwtUtil.verify(token);
+
+        assertSame(first, jwtUtil.verify(token));
+    }
+
+    @Test
+    void testVerifyRejectsTamperedToken() {
+        String token = jwtUtil.generateToken(userDetails);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(tampered));
+        assertFalse(jwtUtil.validateToken(tampered, userDetails));
+    }
+
+    @Test
+    void testVerifyRejectsTokenSignedWithOtherKey() {
+        String foreign = new JwtUtil("fedcba9876543210".repeat(4), 60_000L, "Bearer", "Authorization", 100)
+                .generateToken(userDetails);
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(foreign));
+    }
+
+    @Test
+    void testShortSecretIsRejectedAtStartup() {
+        assertThrows(IllegalStateException.class, () -> new JwtUtil("short", 60_000L, "Bearer", "Authorization", 100));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.docmgmt.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchQueryUtilTest {
+
+    @Test
+    void testEquivalentSpellingsNormaliseAlike() {
+        assertEquals("invoice", SearchQueryUtil.normalize("Invoice"));
+        assertEquals("invoice", SearchQueryUtil.normalize("invoice "));
+        assertEquals("invoice", SearchQueryUtil.normalize("INVOICE"));
+        assertEquals("\"overdue invoice\"", SearchQueryUtil.normalize(" \"Overdue   Invoice\" "));
+    }
+
+    @Test
+    void testNormalizeKeepsTermOrder() {
+        assertEquals("overdue invoice", SearchQueryUtil.normalize("  Overdue\tINVOICE "));
+        // The database fallback matches a phrase, reordered queries must not share results
+        assertNotEquals(SearchQueryUtil.normalize("invoice total"), SearchQueryUtil.normalize("total invoice"));
+    }
+
+    @Test
+    void testBlankQueryIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SearchQueryUtil.normalize("   "));
+    }
+}